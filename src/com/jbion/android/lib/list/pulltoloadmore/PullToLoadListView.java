@@ -9,6 +9,7 @@ import android.widget.AbsListView;
 import android.widget.AbsListView.OnScrollListener;
 
 import com.jbion.android.lib.list.pulltorefresh.PullToRefreshListView;
+import com.jbion.android.lib.util.DebugLog;
 import com.jbion.android.pulltorefresh.R;
 
 public class PullToLoadListView extends PullToRefreshListView implements OnScrollListener {
@@ -117,8 +118,10 @@ public class PullToLoadListView extends PullToRefreshListView implements OnScrol
 
         // if need a list to load more items
         if (onLoadMoreListener != null && loadMoreEnabled) {
-            Log.d(LOG_TAG, "first=" + firstVisibleItem + " visible=" + visibleItemCount + " total="
-                    + totalItemCount);
+            if (DebugLog.isLoggable(Log.VERBOSE)) {
+                DebugLog.v(LOG_TAG, "first=%s visible=%s total=%s", firstVisibleItem,
+                        visibleItemCount, totalItemCount);
+            }
             if (visibleItemCount == totalItemCount) {
                 // nothing to load if the screen is not even full
                 progressBar.setVisibility(View.GONE);
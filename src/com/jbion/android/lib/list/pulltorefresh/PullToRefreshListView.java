@@ -5,7 +5,6 @@ import java.util.Date;
 
 import android.content.Context;
 import android.util.AttributeSet;
-import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.MotionEvent;
 import android.view.View;
@@ -23,6 +22,7 @@ import android.widget.ImageView;
 import android.widget.ListView;
 import android.widget.TextView;
 
+import com.jbion.android.lib.util.DebugLog;
 import com.jbion.android.pulltorefresh.R;
 
 /**
@@ -456,12 +456,12 @@ public class PullToRefreshListView extends ListView {
         if (lockScrollWhileRefreshing
                 && state == State.REFRESHING) {
             // disable touch/scroll while refreshing the list
-            Log.w(LOG_TAG, "touch event ignored while refreshing");
+            DebugLog.v(LOG_TAG, "touch event ignored while refreshing");
             return true;
         }
         if (getAnimation() != null && !getAnimation().hasEnded()) {
             // disable touch/scroll while animating the list
-            Log.w(LOG_TAG, "touch event ignored while animating");
+            DebugLog.v(LOG_TAG, "touch event ignored while animating");
             return true;
         }
 
@@ -490,7 +490,7 @@ public class PullToRefreshListView extends ListView {
                 // not pulling anymore
                 setPullingOnHeader(false);
                 unhideScrollBar();
-                Log.d(LOG_TAG, "Header released");
+                DebugLog.d(LOG_TAG, "Header released");
             }
             break;
 
@@ -498,7 +498,7 @@ public class PullToRefreshListView extends ListView {
             pushHeaderBack(true);
             setPullingOnHeader(false);
             unhideScrollBar();
-            Log.d(LOG_TAG, "Header pull canceled");
+            DebugLog.d(LOG_TAG, "Header pull canceled");
             break;
 
         case MotionEvent.ACTION_MOVE:
@@ -515,7 +515,7 @@ public class PullToRefreshListView extends ListView {
                 hideScrollBarTemporarily();
                 // remember starting position for pull distance
                 pullOrigin = event.getY();
-                Log.d(LOG_TAG, "Start pulling on header");
+                DebugLog.d(LOG_TAG, "Start pulling on header");
             }
 
             if (isPullingOnHeader()) {
@@ -533,13 +533,13 @@ public class PullToRefreshListView extends ListView {
 
                     if (state == State.PULL_TO_REFRESH && headerTopMargin > pullThreshold) {
                         // header pulled beyond the threshold
-                        Log.d(LOG_TAG, "Pull threshold exceeded");
+                        DebugLog.d(LOG_TAG, "Pull threshold exceeded");
                         setState(State.RELEASE_TO_REFRESH);
                         image.clearAnimation();
                         image.startAnimation(ccwRotation);
                     } else if (state == State.RELEASE_TO_REFRESH && headerTopMargin < pullThreshold) {
                         // header pushed back below the threshold
-                        Log.d(LOG_TAG, "Push back threshold");
+                        DebugLog.d(LOG_TAG, "Push back threshold");
                         setState(State.PULL_TO_REFRESH);
                         image.clearAnimation();
                         image.startAnimation(cwRotation);
@@ -622,7 +622,7 @@ public class PullToRefreshListView extends ListView {
         }
         if (getAnimation() != null && !getAnimation().hasEnded()) {
             // animation already in progress
-            Log.w(LOG_TAG, "trying to launch two push-back animations at the same time");
+            DebugLog.w(LOG_TAG, "trying to launch two push-back animations at the same time");
             return;
         }
         int yTranslate = allTheWayAndReset ? -headerContainer.getHeight()
@@ -695,7 +695,7 @@ public class PullToRefreshListView extends ListView {
             height = lp.height;
             lp.height = getHeight() + Math.abs(translation);
             setLayoutParams(lp);
-            Log.w(LOG_TAG, "added height");
+            DebugLog.w(LOG_TAG, "added height");
 
             hideScrollBarTemporarily();
         }
@@ -712,7 +712,7 @@ public class PullToRefreshListView extends ListView {
             android.view.ViewGroup.LayoutParams lp = getLayoutParams();
             lp.height = height;
             setLayoutParams(lp);
-            Log.w(LOG_TAG, "reset height");
+            DebugLog.w(LOG_TAG, "reset height");
 
             unhideScrollBar();
 
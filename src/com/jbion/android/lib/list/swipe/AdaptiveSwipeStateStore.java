@@ -0,0 +1,220 @@
+package com.jbion.android.lib.list.swipe;
+
+/**
+ * {@link SwipeStateStore} switching between a {@link SparseSwipeStateStore} and a
+ * {@link DenseSwipeStateStore} depending on the proportion of items holding a
+ * state.
+ * <p>
+ * Large lists start with the sparse store, and switch to the dense one when too
+ * many items are swiped or checked for the sparse representation to be worth it.
+ * They go back to the sparse store when most states are cleared.
+ * </p>
+ */
+class AdaptiveSwipeStateStore implements SwipeStateStore {
+
+    /**
+     * Below this number of items, the dense store is always used: it only takes a
+     * few words.
+     */
+    private static final int MIN_SPARSE_SIZE = 1024;
+    /**
+     * The sparse store is replaced by the dense one when more than
+     * {@code size / DENSE_RATIO} items hold a state.
+     */
+    private static final int DENSE_RATIO = 16;
+    /**
+     * The dense store is replaced by the sparse one when less than
+     * {@code size / SPARSE_RATIO} items hold a state.
+     */
+    private static final int SPARSE_RATIO = 64;
+
+    private final DenseSwipeStateStore dense = new DenseSwipeStateStore();
+    private final SparseSwipeStateStore sparse = new SparseSwipeStateStore();
+
+    private SwipeStateStore current = sparse;
+
+    /**
+     * Copies the swiped and checked states of {@code from} into {@code to}, which
+     * is reset first. The swipe directions are copied by the callers, which know
+     * how to enumerate them in each store.
+     */
+    private static void copy(SwipeStateStore from, SwipeStateStore to) {
+        to.reset(from.size());
+        for (int i = from.nextSwiped(0); i >= 0; i = from.nextSwiped(i + 1)) {
+            to.setSwiped(i, true);
+        }
+        for (int i = from.nextChecked(0); i >= 0; i = from.nextChecked(i + 1)) {
+            to.setChecked(i, true);
+        }
+    }
+
+    /**
+     * Switches to the dense store if the sparse one holds too many entries.
+     */
+    private void checkDensityIncrease() {
+        if (current == sparse && sparse.getEntryCount() > sparse.size() / DENSE_RATIO) {
+            copy(sparse, dense);
+            for (int i = sparse.nextSwipedToRight(0); i >= 0; i = sparse
+                    .nextSwipedToRight(i + 1)) {
+                dense.setSwipedToRight(i, true);
+            }
+            sparse.reset(0);
+            current = dense;
+        }
+    }
+
+    /**
+     * Switches to the sparse store if the dense one holds few enough states.
+     */
+    private void checkDensityDecrease() {
+        int size = dense.size();
+        if (current == dense && size >= MIN_SPARSE_SIZE
+                && dense.getCountSwiped() + dense.getCountChecked() < size / SPARSE_RATIO) {
+            copy(dense, sparse);
+            for (int i = dense.nextSwipedToRight(0); i >= 0; i = dense.nextSwipedToRight(i + 1)) {
+                sparse.setSwipedToRight(i, true);
+            }
+            dense.reset(0);
+            current = sparse;
+        }
+    }
+
+    /**
+     * Selects the store to use for an empty list of the specified size.
+     */
+    private void selectEmptyStore(int count) {
+        if (count >= MIN_SPARSE_SIZE) {
+            dense.reset(0);
+            sparse.reset(count);
+            current = sparse;
+        } else {
+            sparse.reset(0);
+            dense.reset(count);
+            current = dense;
+        }
+    }
+
+    /**
+     * Returns whether the states are currently held by the dense store.
+     * 
+     * @return {@code true} for the dense store, {@code false} for the sparse one.
+     */
+    boolean isDense() {
+        return current == dense;
+    }
+
+    @Override
+    public void reset(int count) {
+        selectEmptyStore(count);
+    }
+
+    @Override
+    public void onDataSetChanged(int count) {
+        // positions can't be tracked through the change
+        selectEmptyStore(count);
+    }
+
+    @Override
+    public void insertRange(int position, int count) {
+        current.insertRange(position, count);
+        checkDensityDecrease();
+    }
+
+    @Override
+    public void removeRange(int position, int count) {
+        current.removeRange(position, count);
+        checkDensityIncrease();
+        checkDensityDecrease();
+    }
+
+    @Override
+    public void moveItem(int from, int to) {
+        current.moveItem(from, to);
+    }
+
+    @Override
+    public void changeRange(int position, int count) {
+        current.changeRange(position, count);
+    }
+
+    @Override
+    public int size() {
+        return current.size();
+    }
+
+    @Override
+    public boolean isSwiped(int position) {
+        return current.isSwiped(position);
+    }
+
+    @Override
+    public boolean isSwipedToRight(int position) {
+        return current.isSwipedToRight(position);
+    }
+
+    @Override
+    public boolean isChecked(int position) {
+        return current.isChecked(position);
+    }
+
+    @Override
+    public void setSwiped(int position, boolean swiped) {
+        current.setSwiped(position, swiped);
+        if (swiped) {
+            checkDensityIncrease();
+        }
+    }
+
+    @Override
+    public void setSwipedToRight(int position, boolean toRight) {
+        current.setSwipedToRight(position, toRight);
+        if (toRight) {
+            checkDensityIncrease();
+        }
+    }
+
+    @Override
+    public void setChecked(int position, boolean checked) {
+        current.setChecked(position, checked);
+        if (checked) {
+            checkDensityIncrease();
+        }
+    }
+
+    @Override
+    public int getCountSwiped() {
+        return current.getCountSwiped();
+    }
+
+    @Override
+    public int getCountSwiped(boolean toRight) {
+        return current.getCountSwiped(toRight);
+    }
+
+    @Override
+    public int getCountChecked() {
+        return current.getCountChecked();
+    }
+
+    @Override
+    public void unswipeAll() {
+        current.unswipeAll();
+        checkDensityDecrease();
+    }
+
+    @Override
+    public void uncheckAll() {
+        current.uncheckAll();
+        checkDensityDecrease();
+    }
+
+    @Override
+    public int nextSwiped(int fromPosition) {
+        return current.nextSwiped(fromPosition);
+    }
+
+    @Override
+    public int nextChecked(int fromPosition) {
+        return current.nextChecked(fromPosition);
+    }
+}
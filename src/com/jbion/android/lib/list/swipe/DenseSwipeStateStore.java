@@ -0,0 +1,354 @@
+package com.jbion.android.lib.list.swipe;
+
+import java.util.Arrays;
+
+/**
+ * {@link SwipeStateStore} keeping one bit per item and per state in arrays of
+ * {@code long} words. Memory usage is about {@code 3 * size / 8} bytes, and all
+ * accesses are done in constant time without boxing.
+ */
+class DenseSwipeStateStore implements SwipeStateStore {
+
+    private static final int ADDRESS_BITS_PER_WORD = 6;
+    private static final long WORD_MASK = 0xffffffffffffffffL;
+
+    private long[] swiped = new long[0];
+    private long[] swipedToRight = new long[0];
+    private long[] checked = new long[0];
+
+    private int size = 0;
+
+    // running counts, updated on every state transition
+    private int countSwiped = 0;
+    private int countSwipedToRight = 0;
+    private int countChecked = 0;
+
+    private static int wordIndex(int position) {
+        return position >> ADDRESS_BITS_PER_WORD;
+    }
+
+    private static int wordCount(int bitCount) {
+        return wordIndex(bitCount - 1) + 1;
+    }
+
+    private static boolean get(long[] words, int position) {
+        int index = wordIndex(position);
+        return position >= 0 && index < words.length && (words[index] & (1L << position)) != 0;
+    }
+
+    private static void set(long[] words, int position, boolean value) {
+        if (value) {
+            words[wordIndex(position)] |= 1L << position;
+        } else {
+            words[wordIndex(position)] &= ~(1L << position);
+        }
+    }
+
+    private static int nextSetBit(long[] words, int fromPosition) {
+        if (fromPosition < 0) {
+            fromPosition = 0;
+        }
+        int index = wordIndex(fromPosition);
+        if (index >= words.length) {
+            return -1;
+        }
+        long word = words[index] & (WORD_MASK << fromPosition);
+        while (true) {
+            if (word != 0) {
+                return (index << ADDRESS_BITS_PER_WORD) + Long.numberOfTrailingZeros(word);
+            }
+            if (++index == words.length) {
+                return -1;
+            }
+            word = words[index];
+        }
+    }
+
+    /**
+     * Returns the 64 bits starting at the specified bit offset. Bits outside the
+     * array are read as zeros.
+     */
+    private static long readWord(long[] words, int offset) {
+        int index = offset >> ADDRESS_BITS_PER_WORD;
+        int shift = offset & 63;
+        long low = index >= 0 && index < words.length ? words[index] : 0;
+        if (shift == 0) {
+            return low;
+        }
+        long high = index + 1 >= 0 && index + 1 < words.length ? words[index + 1] : 0;
+        return low >>> shift | high << 64 - shift;
+    }
+
+    /**
+     * Clears the bits in the range {@code [from, to)}.
+     */
+    private static void clearRange(long[] words, int from, int to) {
+        if (from >= to) {
+            return;
+        }
+        int startIndex = wordIndex(from);
+        int endIndex = wordIndex(to - 1);
+        long firstMask = WORD_MASK << from;
+        long lastMask = WORD_MASK >>> -to;
+        if (startIndex == endIndex) {
+            words[startIndex] &= ~(firstMask & lastMask);
+            return;
+        }
+        words[startIndex] &= ~firstMask;
+        for (int i = startIndex + 1; i < endIndex; i++) {
+            words[i] = 0;
+        }
+        words[endIndex] &= ~lastMask;
+    }
+
+    /**
+     * Moves the bits from {@code from} to the end of the array so that they start
+     * at {@code to}, a word at a time. The bits below {@code min(from, to)} are
+     * left untouched, and the gap opened when moving up is cleared. The bits past
+     * {@link #size} are expected to be zeros, and stay so.
+     */
+    private static void shiftBits(long[] words, int from, int to) {
+        int distance = from - to;
+        int firstIndex = wordIndex(Math.min(from, to));
+        if (firstIndex >= words.length) {
+            // nothing was ever set there
+            return;
+        }
+        // keep the bits below the moved range in the first word
+        long keepMask = ~(WORD_MASK << Math.min(from, to));
+        if (distance < 0) {
+            // moving up: go downwards so that the source words are read before
+            // being overwritten
+            for (int i = words.length - 1; i > firstIndex; i--) {
+                words[i] = readWord(words, (i << ADDRESS_BITS_PER_WORD) + distance);
+            }
+            long first = readWord(words, (firstIndex << ADDRESS_BITS_PER_WORD) + distance);
+            words[firstIndex] = words[firstIndex] & keepMask | first & ~keepMask;
+            clearRange(words, from, to);
+        } else {
+            long first = readWord(words, (firstIndex << ADDRESS_BITS_PER_WORD) + distance);
+            words[firstIndex] = words[firstIndex] & keepMask | first & ~keepMask;
+            for (int i = firstIndex + 1; i < words.length; i++) {
+                words[i] = readWord(words, (i << ADDRESS_BITS_PER_WORD) + distance);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of bits set in the range {@code [from, to)} of
+     * {@code words}, and also in {@code mask} if it is not {@code null}.
+     */
+    private static int countBits(long[] words, long[] mask, int from, int to) {
+        int count = 0;
+        int endIndex = Math.min(wordIndex(to - 1), words.length - 1);
+        for (int i = wordIndex(from); i <= endIndex; i++) {
+            long word = words[i];
+            if (mask != null) {
+                word &= mask[i];
+            }
+            if (i == wordIndex(from)) {
+                word &= WORD_MASK << from;
+            }
+            if (i == wordIndex(to - 1)) {
+                word &= WORD_MASK >>> -to;
+            }
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /**
+     * Grows the word arrays if necessary, so that the specified position can be
+     * written.
+     */
+    private void ensureCapacity(int position) {
+        if (position >= size) {
+            size = position + 1;
+        }
+        int words = wordCount(size);
+        if (words > swiped.length) {
+            int newLength = Math.max(words, swiped.length * 2);
+            swiped = Arrays.copyOf(swiped, newLength);
+            swipedToRight = Arrays.copyOf(swipedToRight, newLength);
+            checked = Arrays.copyOf(checked, newLength);
+        }
+    }
+
+    @Override
+    public void reset(int count) {
+        int words = count > 0 ? wordCount(count) : 0;
+        if (words > swiped.length || words < swiped.length / 4) {
+            // grow, or release the memory of a list that shrank a lot
+            swiped = new long[words];
+            swipedToRight = new long[words];
+            checked = new long[words];
+        } else {
+            Arrays.fill(swiped, 0);
+            Arrays.fill(swipedToRight, 0);
+            Arrays.fill(checked, 0);
+        }
+        size = count;
+        countSwiped = 0;
+        countSwipedToRight = 0;
+        countChecked = 0;
+    }
+
+    @Override
+    public void onDataSetChanged(int count) {
+        // positions can't be tracked through the change
+        reset(count);
+    }
+
+    @Override
+    public void insertRange(int position, int count) {
+        if (count <= 0 || position >= size) {
+            size = Math.max(size, position) + Math.max(count, 0);
+            return;
+        }
+        ensureCapacity(size + count - 1);
+        shiftBits(swiped, position, position + count);
+        shiftBits(swipedToRight, position, position + count);
+        shiftBits(checked, position, position + count);
+    }
+
+    @Override
+    public void removeRange(int position, int count) {
+        if (count <= 0 || position >= size) {
+            return;
+        }
+        int end = Math.min(position + count, size);
+        countSwiped -= countBits(swiped, null, position, end);
+        countSwipedToRight -= countBits(swipedToRight, swiped, position, end);
+        countChecked -= countBits(checked, null, position, end);
+        shiftBits(swiped, end, position);
+        shiftBits(swipedToRight, end, position);
+        shiftBits(checked, end, position);
+        size -= end - position;
+    }
+
+    @Override
+    public void moveItem(int from, int to) {
+        if (from == to) {
+            return;
+        }
+        boolean wasSwiped = get(swiped, from);
+        boolean wasSwipedToRight = get(swipedToRight, from);
+        boolean wasChecked = get(checked, from);
+        removeRange(from, 1);
+        insertRange(to, 1);
+        setSwiped(to, wasSwiped);
+        setSwipedToRight(to, wasSwipedToRight);
+        setChecked(to, wasChecked);
+    }
+
+    @Override
+    public void changeRange(int position, int count) {
+        // the states stay with the positions
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isSwiped(int position) {
+        return get(swiped, position);
+    }
+
+    @Override
+    public boolean isSwipedToRight(int position) {
+        return get(swipedToRight, position);
+    }
+
+    @Override
+    public boolean isChecked(int position) {
+        return get(checked, position);
+    }
+
+    @Override
+    public void setSwiped(int position, boolean value) {
+        if (get(swiped, position) == value) {
+            return;
+        }
+        ensureCapacity(position);
+        set(swiped, position, value);
+        countSwiped += value ? 1 : -1;
+        if (!value && get(swipedToRight, position)) {
+            // the direction goes with the swipe
+            set(swipedToRight, position, false);
+            countSwipedToRight--;
+        }
+    }
+
+    @Override
+    public void setSwipedToRight(int position, boolean toRight) {
+        if (get(swipedToRight, position) == toRight || !get(swiped, position)) {
+            // only swiped items have a direction
+            return;
+        }
+        set(swipedToRight, position, toRight);
+        countSwipedToRight += toRight ? 1 : -1;
+    }
+
+    @Override
+    public void setChecked(int position, boolean value) {
+        if (get(checked, position) == value) {
+            return;
+        }
+        ensureCapacity(position);
+        set(checked, position, value);
+        countChecked += value ? 1 : -1;
+    }
+
+    @Override
+    public int getCountSwiped() {
+        return countSwiped;
+    }
+
+    @Override
+    public int getCountSwiped(boolean toRight) {
+        return toRight ? countSwipedToRight : countSwiped - countSwipedToRight;
+    }
+
+    @Override
+    public int getCountChecked() {
+        return countChecked;
+    }
+
+    @Override
+    public void unswipeAll() {
+        Arrays.fill(swiped, 0);
+        Arrays.fill(swipedToRight, 0);
+        countSwiped = 0;
+        countSwipedToRight = 0;
+    }
+
+    @Override
+    public void uncheckAll() {
+        Arrays.fill(checked, 0);
+        countChecked = 0;
+    }
+
+    @Override
+    public int nextSwiped(int fromPosition) {
+        return nextSetBit(swiped, fromPosition);
+    }
+
+    @Override
+    public int nextChecked(int fromPosition) {
+        return nextSetBit(checked, fromPosition);
+    }
+
+    /**
+     * Returns the first position greater than or equal to {@code fromPosition}
+     * that is swiped towards the right.
+     *
+     * @param fromPosition
+     *            The position to start searching from (inclusive).
+     * @return the next position with a right direction, or -1 if there is none.
+     */
+    int nextSwipedToRight(int fromPosition) {
+        return nextSetBit(swipedToRight, fromPosition);
+    }
+}
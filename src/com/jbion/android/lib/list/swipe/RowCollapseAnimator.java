@@ -0,0 +1,281 @@
+package com.jbion.android.lib.list.swipe;
+
+import java.util.Arrays;
+
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.view.View;
+import android.view.ViewGroup;
+import android.view.animation.AccelerateDecelerateInterpolator;
+import android.view.animation.Interpolator;
+import android.widget.ListView;
+
+import com.nineoldandroids.animation.AnimatorUpdateListener;
+import com.nineoldandroids.animation.ValueAnimator;
+
+/**
+ * Collapses the rows of a list, all driven by a single animator.
+ * <p>
+ * The animated value of the animator is the time elapsed since it started, read
+ * on each frame without boxing, so the collapses follow the frame source and clock
+ * of the other animations of the library. Each row collapses over the configured
+ * duration, starting when it is added. The collapse is done in one of two ways:
+ * <ul>
+ * <li>{@link SwipeOptions#DISMISS_COLLAPSE_LAYOUT}: the height of each collapsing
+ * row is written directly into its layout params and the row is only marked for
+ * layout, so that the list performs a single layout pass per frame for all the
+ * rows.</li>
+ * <li>{@link SwipeOptions#DISMISS_COLLAPSE_TRANSLATE}: the collapsing rows fade out
+ * while the rows below them are translated upwards to cover them. No layout happens
+ * during the animation.</li>
+ * </ul>
+ * Collapsed rows stay collapsed until {@link #restore()} is called, typically
+ * after the corresponding items are removed from the adapter, which triggers the
+ * only real layout.
+ * </p>
+ */
+@TargetApi(Build.VERSION_CODES.HONEYCOMB)
+class RowCollapseAnimator implements AnimatorUpdateListener {
+
+    /**
+     * Callback for the end of the collapse of a row.
+     */
+    interface OnRowCollapsedListener {
+        /**
+         * Called when a row is fully collapsed.
+         *
+         * @param row
+         *            The collapsed row.
+         */
+        void onRowCollapsed(View row);
+    }
+
+    private static final int INITIAL_CAPACITY = 8;
+
+    /**
+     * Range of the elapsed time animated by the animator, in milliseconds. Times up
+     * to 2^24 (about four and a half hours) are exact in a float.
+     */
+    private static final int CLOCK_RANGE = 1 << 24;
+
+    private final ListView listView;
+    private final OnRowCollapsedListener listener;
+    private final Interpolator interpolator = new AccelerateDecelerateInterpolator();
+
+    private long duration;
+    private int mode = SwipeOptions.DISMISS_COLLAPSE_LAYOUT;
+
+    private View[] rows = new View[INITIAL_CAPACITY];
+    private int[] heights = new int[INITIAL_CAPACITY];
+    /** Time elapsed on the animator when each row was added. */
+    private long[] startTimes = new long[INITIAL_CAPACITY];
+    private boolean[] collapsed = new boolean[INITIAL_CAPACITY];
+    /** Part of the height of each row that is currently collapsed. */
+    private float[] offsets = new float[INITIAL_CAPACITY];
+    private int count = 0;
+    private int collapsingCount = 0;
+
+    /**
+     * Children of the list translated by a translate collapse, including those that
+     * were scrolled off since, so that all of them can be restored.
+     */
+    private View[] translatedViews = new View[INITIAL_CAPACITY];
+    private int translatedCount = 0;
+
+    private ValueAnimator animator;
+
+    /**
+     * Creates a new animator for the rows of the specified list.
+     *
+     * @param listView
+     *            The list containing the rows to collapse.
+     * @param listener
+     *            The listener to notify at the end of the collapses.
+     */
+    public RowCollapseAnimator(ListView listView, OnRowCollapsedListener listener) {
+        this.listView = listView;
+        this.listener = listener;
+    }
+
+    /**
+     * Sets the duration of the collapse of each row.
+     *
+     * @param duration
+     *            The duration in milliseconds.
+     */
+    public void setDuration(long duration) {
+        this.duration = duration;
+    }
+
+    /**
+     * Sets how the rows are collapsed. This has no effect while rows are collapsed.
+     *
+     * @param mode
+     *            One of {@link SwipeOptions#DISMISS_COLLAPSE_LAYOUT} or
+     *            {@link SwipeOptions#DISMISS_COLLAPSE_TRANSLATE}.
+     */
+    public void setMode(int mode) {
+        if (count == 0) {
+            this.mode = mode;
+        }
+    }
+
+    /**
+     * Starts collapsing the specified row. The row joins the rows already
+     * collapsing, if any.
+     *
+     * @param row
+     *            The row to collapse.
+     */
+    public void collapse(View row) {
+        if (count == rows.length) {
+            int capacity = count * 2;
+            rows = Arrays.copyOf(rows, capacity);
+            heights = Arrays.copyOf(heights, capacity);
+            startTimes = Arrays.copyOf(startTimes, capacity);
+            collapsed = Arrays.copyOf(collapsed, capacity);
+            offsets = Arrays.copyOf(offsets, capacity);
+        }
+        if (animator == null) {
+            // linear, so that the animated value is the elapsed time
+            animator = ValueAnimator.ofFloat(0f, CLOCK_RANGE);
+            animator.setInterpolator(null);
+            animator.setDuration(CLOCK_RANGE);
+            animator.addUpdateListener(this);
+        }
+        rows[count] = row;
+        heights[count] = row.getHeight();
+        // 0 if the animator is stopped, it restarts below
+        startTimes[count] = animator.getCurrentPlayTime();
+        collapsed[count] = false;
+        offsets[count] = 0;
+        count++;
+        collapsingCount++;
+        if (!animator.isRunning()) {
+            animator.start();
+        }
+    }
+
+    /**
+     * Returns whether rows are currently collapsing.
+     *
+     * @return {@code true} if at least one row is still animating.
+     */
+    public boolean isRunning() {
+        return collapsingCount > 0;
+    }
+
+    @Override
+    public void onAnimationUpdate(ValueAnimator animation) {
+        if (!animation.isRunning()) {
+            // initial value set by start(), before the first frame
+            return;
+        }
+        long now = (long) animation.getAnimatedFloatValue();
+        for (int i = 0; i < count; i++) {
+            float fraction = duration > 0 ? (float) (now - startTimes[i]) / duration : 1f;
+            fraction = interpolator.getInterpolation(Math.max(0f, Math.min(fraction, 1f)));
+            offsets[i] = heights[i] * fraction;
+            if (mode == SwipeOptions.DISMISS_COLLAPSE_LAYOUT) {
+                ViewGroup.LayoutParams lp = rows[i].getLayoutParams();
+                lp.height = Math.max(heights[i] - (int) offsets[i], 1);
+                // no requestLayout() per row, the list is laid out once below
+                rows[i].forceLayout();
+            } else {
+                rows[i].setAlpha(1f - fraction);
+            }
+        }
+        if (mode == SwipeOptions.DISMISS_COLLAPSE_LAYOUT) {
+            listView.requestLayout();
+        } else {
+            translateChildren();
+        }
+        notifyCollapsedRows(now);
+    }
+
+    /**
+     * Translates each child of the list upwards by the collapsed height of the rows
+     * above it.
+     */
+    private void translateChildren() {
+        int childCount = listView.getChildCount();
+        for (int c = 0; c < childCount; c++) {
+            View child = listView.getChildAt(c);
+            int top = child.getTop();
+            float offset = 0;
+            for (int i = 0; i < count; i++) {
+                if (rows[i].getTop() < top) {
+                    offset += offsets[i];
+                }
+            }
+            if (offset != 0) {
+                addTranslatedView(child);
+            }
+            child.setTranslationY(-offset);
+        }
+    }
+
+    /**
+     * Remembers a child about to be translated, unless it already was.
+     */
+    private void addTranslatedView(View child) {
+        for (int i = 0; i < translatedCount; i++) {
+            if (translatedViews[i] == child) {
+                return;
+            }
+        }
+        if (translatedCount == translatedViews.length) {
+            translatedViews = Arrays.copyOf(translatedViews, translatedCount * 2);
+        }
+        translatedViews[translatedCount++] = child;
+    }
+
+    /**
+     * Notifies the listener of the rows that just finished collapsing, and stops
+     * the animator when no row is collapsing anymore.
+     */
+    private void notifyCollapsedRows(long now) {
+        // count may change during the loop if the listener restores or adds rows
+        for (int i = 0; i < count; i++) {
+            if (collapsed[i] || now - startTimes[i] < duration) {
+                continue;
+            }
+            collapsed[i] = true;
+            collapsingCount--;
+            if (collapsingCount == 0) {
+                animator.cancel();
+            }
+            listener.onRowCollapsed(rows[i]);
+        }
+    }
+
+    /**
+     * Restores the original presentation of all the rows, and forgets them. This
+     * should be called once the collapsed items are removed from the adapter.
+     */
+    public void restore() {
+        if (animator != null) {
+            animator.cancel();
+        }
+        if (mode == SwipeOptions.DISMISS_COLLAPSE_LAYOUT) {
+            for (int i = 0; i < count; i++) {
+                rows[i].getLayoutParams().height = heights[i];
+                rows[i].forceLayout();
+            }
+            listView.requestLayout();
+        } else {
+            for (int i = 0; i < count; i++) {
+                rows[i].setAlpha(1f);
+            }
+            // the translated rows may have been scrolled off and recycled
+            for (int i = 0; i < translatedCount; i++) {
+                translatedViews[i].setTranslationY(0);
+            }
+            Arrays.fill(translatedViews, 0, translatedCount, null);
+            translatedCount = 0;
+        }
+        Arrays.fill(rows, 0, count, null);
+        count = 0;
+        collapsingCount = 0;
+    }
+}
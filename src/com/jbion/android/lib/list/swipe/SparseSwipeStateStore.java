@@ -0,0 +1,376 @@
+package com.jbion.android.lib.list.swipe;
+
+import java.util.Arrays;
+
+/**
+ * {@link SwipeStateStore} that only stores the items having a non-default state,
+ * as entries sorted by position. Memory usage is proportional to the number of
+ * such items rather than to the size of the list, which makes this store suitable
+ * for huge adapters where only a few items are ever swiped or checked.
+ * <p>
+ * Lookups are done by binary search, and the enumeration of the swiped or checked
+ * positions visits only the stored entries.
+ * </p>
+ */
+class SparseSwipeStateStore implements SwipeStateStore {
+
+    static final int FLAG_SWIPED = 1;
+    static final int FLAG_SWIPED_TO_RIGHT = 1 << 1;
+    static final int FLAG_CHECKED = 1 << 2;
+
+    private static final int INITIAL_CAPACITY = 8;
+
+    int[] positions = new int[INITIAL_CAPACITY];
+    byte[] flags = new byte[INITIAL_CAPACITY];
+    int entries = 0;
+
+    int size = 0;
+
+    private int countSwiped = 0;
+    private int countSwipedToRight = 0;
+    private int countChecked = 0;
+
+    /**
+     * Index of the entry returned by the last call to {@link #next(int, int)}, used
+     * to enumerate the entries without a binary search per step.
+     */
+    private int lastNextIndex = 0;
+
+    /*
+     * ENTRY STORAGE PRIMITIVES
+     * Subclasses storing additional data per entry override these to keep their
+     * own arrays in sync.
+     */
+
+    /**
+     * Changes the capacity of the entry arrays.
+     */
+    void resizeEntries(int capacity) {
+        positions = Arrays.copyOf(positions, capacity);
+        flags = Arrays.copyOf(flags, capacity);
+    }
+
+    /**
+     * Moves {@code length} entries from index {@code from} to index {@code to}.
+     */
+    void moveEntries(int from, int to, int length) {
+        System.arraycopy(positions, from, positions, to, length);
+        System.arraycopy(flags, from, flags, to, length);
+    }
+
+    /**
+     * Called when a new entry is created for the specified position.
+     */
+    void onEntryInserted(int index, int position) {}
+
+    /*
+     * ENTRY MANAGEMENT
+     */
+
+    /**
+     * Returns the number of stored entries, that is the number of items holding a
+     * non-default state.
+     *
+     * @return the number of stored entries.
+     */
+    int getEntryCount() {
+        return entries;
+    }
+
+    /**
+     * Returns the index of the entry for the specified position, or
+     * {@code -(insertionIndex + 1)} if there is none.
+     */
+    int indexOf(int position) {
+        return Arrays.binarySearch(positions, 0, entries, position);
+    }
+
+    private boolean hasFlag(int position, int flag) {
+        int index = indexOf(position);
+        return index >= 0 && (flags[index] & flag) != 0;
+    }
+
+    /**
+     * Sets or clears the specified flags of the entry at the specified position,
+     * creating or removing the entry as needed.
+     */
+    private void setFlag(int position, int flag, boolean value) {
+        int index = indexOf(position);
+        if (index < 0) {
+            if (!value) {
+                return;
+            }
+            index = insertEntry(-index - 1, position);
+        }
+        int oldFlags = flags[index];
+        int newFlags = value ? oldFlags | flag : oldFlags & ~flag;
+        if (newFlags == oldFlags) {
+            return;
+        }
+        updateCounts(oldFlags, -1);
+        updateCounts(newFlags, 1);
+        if (newFlags == 0) {
+            removeEntry(index);
+        } else {
+            flags[index] = (byte) newFlags;
+        }
+    }
+
+    /**
+     * Adds ({@code delta = 1}) or removes ({@code delta = -1}) an entry having the
+     * specified flags from the running counts.
+     */
+    void updateCounts(int entryFlags, int delta) {
+        if ((entryFlags & FLAG_SWIPED) != 0) {
+            countSwiped += delta;
+            if ((entryFlags & FLAG_SWIPED_TO_RIGHT) != 0) {
+                countSwipedToRight += delta;
+            }
+        }
+        if ((entryFlags & FLAG_CHECKED) != 0) {
+            countChecked += delta;
+        }
+    }
+
+    private int insertEntry(int index, int position) {
+        if (entries == positions.length) {
+            resizeEntries(entries * 2);
+        }
+        moveEntries(index, index + 1, entries - index);
+        positions[index] = position;
+        flags[index] = 0;
+        entries++;
+        onEntryInserted(index, position);
+        if (position >= size) {
+            size = position + 1;
+        }
+        return index;
+    }
+
+    private void removeEntry(int index) {
+        entries--;
+        moveEntries(index + 1, index, entries - index);
+    }
+
+    /**
+     * Removes the specified flags from all the entries, dropping the entries that
+     * don't hold any state anymore.
+     */
+    private void clearFlag(int flag) {
+        int kept = 0;
+        for (int i = 0; i < entries; i++) {
+            int entryFlags = flags[i] & ~flag;
+            if (entryFlags != 0) {
+                moveEntries(i, kept, 1);
+                flags[kept] = (byte) entryFlags;
+                kept++;
+            }
+        }
+        entries = kept;
+    }
+
+    private int next(int flag, int fromPosition) {
+        int index = lastNextIndex;
+        // fast path for enumerations: continue after the last returned entry
+        if (index >= entries || positions[index] >= fromPosition
+                || (index + 1 < entries && positions[index + 1] < fromPosition)) {
+            index = indexOf(fromPosition);
+            if (index < 0) {
+                index = -index - 1;
+            }
+        } else {
+            index++;
+        }
+        for (; index < entries; index++) {
+            if ((flags[index] & flag) != 0) {
+                lastNextIndex = index;
+                return positions[index];
+            }
+        }
+        return -1;
+    }
+
+    /*
+     * STATE STORE IMPLEMENTATION
+     */
+
+    @Override
+    public void reset(int count) {
+        entries = 0;
+        size = count;
+        lastNextIndex = 0;
+        countSwiped = 0;
+        countSwipedToRight = 0;
+        countChecked = 0;
+    }
+
+    @Override
+    public void onDataSetChanged(int count) {
+        // positions can't be tracked through the change
+        reset(count);
+    }
+
+    @Override
+    public void insertRange(int position, int count) {
+        size += count;
+        int index = indexOf(position);
+        if (index < 0) {
+            index = -index - 1;
+        }
+        for (int i = index; i < entries; i++) {
+            positions[i] += count;
+        }
+    }
+
+    @Override
+    public void removeRange(int position, int count) {
+        int end = Math.min(position + count, size);
+        if (end <= position) {
+            return;
+        }
+        size -= end - position;
+        int start = indexOf(position);
+        if (start < 0) {
+            start = -start - 1;
+        }
+        int stop = start;
+        while (stop < entries && positions[stop] < end) {
+            updateCounts(flags[stop], -1);
+            stop++;
+        }
+        moveEntries(stop, start, entries - stop);
+        entries -= stop - start;
+        for (int i = start; i < entries; i++) {
+            positions[i] -= end - position;
+        }
+        lastNextIndex = 0;
+    }
+
+    @Override
+    public void moveItem(int from, int to) {
+        if (from == to) {
+            return;
+        }
+        int index = indexOf(from);
+        // the entries of the items in between, which shift towards from
+        int low = indexOf(Math.min(from, to));
+        low = low < 0 ? -low - 1 : low;
+        int high = indexOf(Math.max(from, to) + 1);
+        high = high < 0 ? -high - 1 : high;
+        int shift = from < to ? -1 : 1;
+        for (int i = low; i < high; i++) {
+            positions[i] += shift;
+        }
+        if (index >= 0) {
+            // the moved entry goes past the shifted ones, through the spare slot at
+            // the end of the arrays
+            if (entries == positions.length) {
+                resizeEntries(entries * 2);
+            }
+            moveEntries(index, entries, 1);
+            if (from < to) {
+                moveEntries(index + 1, index, high - 1 - index);
+                moveEntries(entries, high - 1, 1);
+                positions[high - 1] = to;
+            } else {
+                moveEntries(low, low + 1, index - low);
+                moveEntries(entries, low, 1);
+                positions[low] = to;
+            }
+        }
+        lastNextIndex = 0;
+    }
+
+    @Override
+    public void changeRange(int position, int count) {
+        // the states stay with the positions
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isSwiped(int position) {
+        return hasFlag(position, FLAG_SWIPED);
+    }
+
+    @Override
+    public boolean isSwipedToRight(int position) {
+        return hasFlag(position, FLAG_SWIPED_TO_RIGHT);
+    }
+
+    @Override
+    public boolean isChecked(int position) {
+        return hasFlag(position, FLAG_CHECKED);
+    }
+
+    @Override
+    public void setSwiped(int position, boolean swiped) {
+        // the direction goes with the swipe, so that unswiped items leave no entry
+        setFlag(position, swiped ? FLAG_SWIPED : FLAG_SWIPED | FLAG_SWIPED_TO_RIGHT, swiped);
+    }
+
+    @Override
+    public void setSwipedToRight(int position, boolean toRight) {
+        if (!toRight || isSwiped(position)) {
+            setFlag(position, FLAG_SWIPED_TO_RIGHT, toRight);
+        }
+    }
+
+    @Override
+    public void setChecked(int position, boolean checked) {
+        setFlag(position, FLAG_CHECKED, checked);
+    }
+
+    @Override
+    public int getCountSwiped() {
+        return countSwiped;
+    }
+
+    @Override
+    public int getCountSwiped(boolean toRight) {
+        return toRight ? countSwipedToRight : countSwiped - countSwipedToRight;
+    }
+
+    @Override
+    public int getCountChecked() {
+        return countChecked;
+    }
+
+    @Override
+    public void unswipeAll() {
+        clearFlag(FLAG_SWIPED | FLAG_SWIPED_TO_RIGHT);
+        countSwiped = 0;
+        countSwipedToRight = 0;
+    }
+
+    @Override
+    public void uncheckAll() {
+        clearFlag(FLAG_CHECKED);
+        countChecked = 0;
+    }
+
+    @Override
+    public int nextSwiped(int fromPosition) {
+        return next(FLAG_SWIPED, fromPosition);
+    }
+
+    @Override
+    public int nextChecked(int fromPosition) {
+        return next(FLAG_CHECKED, fromPosition);
+    }
+
+    /**
+     * Returns the first position greater than or equal to {@code fromPosition}
+     * that is swiped towards the right.
+     *
+     * @param fromPosition
+     *            The position to start searching from (inclusive).
+     * @return the next position with a right direction, or -1 if there is none.
+     */
+    int nextSwipedToRight(int fromPosition) {
+        return next(FLAG_SWIPED_TO_RIGHT, fromPosition);
+    }
+}
@@ -0,0 +1,218 @@
+package com.jbion.android.lib.list.swipe;
+
+import java.util.Arrays;
+
+import android.widget.ListAdapter;
+import android.widget.ListView;
+
+/**
+ * {@link SwipeStateStore} that attaches the states to the items' stable IDs
+ * instead of their positions, so that they survive adapter changes.
+ * <p>
+ * Like {@link SparseSwipeStateStore}, only the items having a non-default state
+ * are stored, as entries sorted by position, each entry also holding the ID of its
+ * item. When the data set changes, each entry looks for its ID around its previous
+ * position, so that insertions and removals of other items only cost a few lookups
+ * per entry. The entries that moved further are found in a single pass over the
+ * adapter. Entries whose ID disappeared from the adapter are dropped.
+ * </p>
+ * <p>
+ * This store requires an adapter with {@link ListAdapter#hasStableIds() stable
+ * IDs}.
+ * </p>
+ */
+class StableIdSwipeStateStore extends SparseSwipeStateStore {
+
+    /**
+     * Maximum distance at which the IDs are looked for around their former
+     * positions, before falling back to a pass over the whole adapter.
+     */
+    private static final int SEARCH_RADIUS = 8;
+    private static final int NOT_FOUND_NEARBY = -2;
+
+    private final ListView listView;
+
+    private long[] ids = new long[positions.length];
+
+    /**
+     * Creates a new store for the specified list.
+     *
+     * @param listView
+     *            The list whose adapter provides the IDs of the items.
+     */
+    public StableIdSwipeStateStore(ListView listView) {
+        this.listView = listView;
+    }
+
+    @Override
+    void resizeEntries(int capacity) {
+        super.resizeEntries(capacity);
+        ids = Arrays.copyOf(ids, capacity);
+    }
+
+    @Override
+    void moveEntries(int from, int to, int length) {
+        super.moveEntries(from, to, length);
+        System.arraycopy(ids, from, ids, to, length);
+    }
+
+    @Override
+    void onEntryInserted(int index, int position) {
+        ids[index] = listView.getItemIdAtPosition(position);
+    }
+
+    /**
+     * Looks for the IDs of the specified items in the adapter, and replaces their
+     * former positions with the new ones, or with -1 if they are not in the adapter
+     * anymore. Negative positions are left untouched.
+     * <p>
+     * Each ID is first looked for in a window of {@link #SEARCH_RADIUS} positions
+     * around its former position, which is enough for the insertions and removals
+     * of a few items. The IDs that are not found there are looked up together in a
+     * single pass over the adapter, so that a reorder costs {@code O(n log k)}
+     * instead of {@code O(n * k)} ID reads.
+     * </p>
+     * 
+     * @param adapter
+     *            The adapter to look into.
+     * @param ids
+     *            The IDs of the items.
+     * @param positions
+     *            The former positions of the items, overwritten with the new ones.
+     * @param count
+     *            The number of items to look for.
+     */
+    static void findPositions(ListAdapter adapter, long[] ids, int[] positions, int count) {
+        int adapterCount = adapter.getCount();
+        int farCount = 0;
+        for (int i = 0; i < count; i++) {
+            if (positions[i] < 0) {
+                continue;
+            }
+            positions[i] = findPositionNear(adapter, adapterCount, ids[i], positions[i]);
+            if (positions[i] == NOT_FOUND_NEARBY) {
+                farCount++;
+            }
+        }
+        if (farCount == 0) {
+            return;
+        }
+        // sorted IDs to look for, and their positions once found
+        long[] farIds = new long[farCount];
+        for (int i = 0, j = 0; i < count; i++) {
+            if (positions[i] == NOT_FOUND_NEARBY) {
+                farIds[j++] = ids[i];
+            }
+        }
+        Arrays.sort(farIds);
+        int[] farPositions = new int[farCount];
+        Arrays.fill(farPositions, -1);
+        int remaining = farCount;
+        for (int p = 0; p < adapterCount && remaining > 0; p++) {
+            int index = Arrays.binarySearch(farIds, adapter.getItemId(p));
+            if (index >= 0 && farPositions[index] < 0) {
+                farPositions[index] = p;
+                remaining--;
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            if (positions[i] == NOT_FOUND_NEARBY) {
+                positions[i] = farPositions[Arrays.binarySearch(farIds, ids[i])];
+            }
+        }
+    }
+
+    /**
+     * Looks for the specified ID in the adapter, starting at the specified position
+     * and moving away from it in both directions, up to {@link #SEARCH_RADIUS}.
+     * 
+     * @return the new position of the ID, or {@link #NOT_FOUND_NEARBY}.
+     */
+    private static int findPositionNear(ListAdapter adapter, int count, long id, int hint) {
+        for (int d = 0; d <= SEARCH_RADIUS; d++) {
+            int after = hint + d;
+            if (after < count && adapter.getItemId(after) == id) {
+                return after;
+            }
+            int before = hint - d;
+            if (d > 0 && before >= 0 && before < count && adapter.getItemId(before) == id) {
+                return before;
+            }
+        }
+        return NOT_FOUND_NEARBY;
+    }
+
+    /**
+     * Updates the positions of the stored states to follow their IDs in the
+     * adapter. Only the items holding a state are looked up.
+     */
+    @Override
+    public void onDataSetChanged(int count) {
+        ListAdapter adapter = listView.getAdapter();
+        if (adapter == null) {
+            reset(count);
+            return;
+        }
+        size = count;
+        findPositions(adapter, ids, positions, entries);
+        int kept = 0;
+        for (int i = 0; i < entries; i++) {
+            if (positions[i] < 0) {
+                // the item was removed from the adapter
+                updateCounts(flags[i], -1);
+                continue;
+            }
+            moveEntries(i, kept, 1);
+            kept++;
+        }
+        entries = kept;
+        sortEntries();
+    }
+
+    /**
+     * Drops the states of the changed items whose ID changed: they were replaced by
+     * other items.
+     */
+    @Override
+    public void changeRange(int position, int count) {
+        int end = position + count;
+        int index = indexOf(position);
+        if (index < 0) {
+            index = -index - 1;
+        }
+        int kept = index;
+        int stop = index;
+        for (; stop < entries && positions[stop] < end; stop++) {
+            if (listView.getItemIdAtPosition(positions[stop]) != ids[stop]) {
+                updateCounts(flags[stop], -1);
+            } else {
+                moveEntries(stop, kept, 1);
+                kept++;
+            }
+        }
+        moveEntries(stop, kept, entries - stop);
+        entries -= stop - kept;
+    }
+
+    /**
+     * Sorts the entries by position. An insertion sort is used because the entries
+     * are expected to be almost sorted after a remap.
+     */
+    private void sortEntries() {
+        for (int i = 1; i < entries; i++) {
+            int position = positions[i];
+            long id = ids[i];
+            byte entryFlags = flags[i];
+            int j = i - 1;
+            while (j >= 0 && positions[j] > position) {
+                j--;
+            }
+            if (j + 1 < i) {
+                moveEntries(j + 1, j + 2, i - j - 1);
+                positions[j + 1] = position;
+                ids[j + 1] = id;
+                flags[j + 1] = entryFlags;
+            }
+        }
+    }
+}
@@ -6,13 +6,13 @@ import android.content.Context;
 import android.content.res.TypedArray;
 import android.database.DataSetObserver;
 import android.util.AttributeSet;
-import android.util.Log;
 import android.view.MotionEvent;
 import android.view.View;
 import android.widget.ListAdapter;
 import android.widget.ListView;
 
 import com.jbion.android.lib.list.pulltoloadmore.PullToLoadListView;
+import com.jbion.android.lib.util.DebugLog;
 import com.jbion.android.pulltorefresh.R;
 
 /**
@@ -119,7 +119,7 @@ public class SwipeListView extends PullToLoadListView {
         boolean superIntercept = super.onInterceptTouchEvent(ev);
         // execute super in any case (hence the order)
         if (superIntercept) {
-            Log.i(LOG_TAG, "SUPER INTERCEPTS TOUCH EVENTS (scroll)");
+            DebugLog.v(LOG_TAG, "SUPER INTERCEPTS TOUCH EVENTS (scroll)");
         }
         return superIntercept || customIntercept;
     }
@@ -187,6 +187,20 @@ public class SwipeListView extends PullToLoadListView {
         return touchListener.getCheckedPositions();
     }
 
+    /**
+     * Writes the positions that are currently selected into the specified buffer,
+     * in ascending order. Unlike {@link #getSelectedPositions()}, this method does
+     * not allocate anything, so the same buffer can be reused across calls.
+     * 
+     * @param positions
+     *            the buffer to fill, typically sized with {@link #getCountSelected()}
+     * @return the number of selected items. If it is greater than the length of the
+     *         buffer, only the first positions were written.
+     */
+    public int getSelectedPositions(int[] positions) {
+        return touchListener.getCheckedPositions(positions);
+    }
+
     /**
      * Returns the number of currently swiped items.
      * 
@@ -217,38 +231,53 @@ public class SwipeListView extends PullToLoadListView {
      *            Position that you want open
      */
     public void dismiss(int position) {
-        int height = touchListener.dismiss(position);
-        if (height > 0) {
-            touchListener.handlerPendingDismisses(height);
-        } else {
-            int[] dismissPositions = new int[1];
-            dismissPositions[0] = position;
-            onDismiss(dismissPositions);
-            touchListener.resetPendingDismisses();
-        }
+        touchListener.dismiss(position);
+        touchListener.processPendingDismisses();
+    }
+
+    /**
+     * Dismisses the items at the specified positions. Only the visible items are
+     * animated, and all the positions are notified in a single
+     * {@link SwipeListViewListener#onDismiss(int[])} call, in descending order.
+     * 
+     * @param positions
+     *            Positions of the items to dismiss
+     */
+    public void dismiss(int[] positions) {
+        touchListener.dismiss(positions, positions.length);
+        touchListener.processPendingDismisses();
+    }
+
+    /**
+     * Cancels the dismisses waiting for the end of the undo window, and restores
+     * their rows. The adapter was not modified, so nothing else has to be done.
+     * 
+     * @return {@code true} if dismisses were cancelled, {@code false} if there was
+     *         nothing to undo, or if a dismiss animation is still running.
+     * @see #setUndoWindow(long)
+     */
+    public boolean undoDismiss() {
+        return touchListener.undoPendingDismisses();
+    }
+
+    /**
+     * Notifies the dismisses waiting for the end of the undo window right away,
+     * for instance when leaving the screen.
+     * 
+     * @see #setUndoWindow(long)
+     */
+    public void commitDismiss() {
+        touchListener.commitPendingDismisses();
     }
 
     /**
      * Dismiss items selected
      */
     public void dismissSelected() {
-        List<Integer> list = touchListener.getCheckedPositions();
-        int[] dismissPositions = new int[list.size()];
-        int height = 0;
-        for (int i = 0; i < list.size(); i++) {
-            int position = list.get(i);
-            dismissPositions[i] = position;
-            int auxHeight = touchListener.dismiss(position);
-            if (auxHeight > 0) {
-                height = auxHeight;
-            }
-        }
-        if (height > 0) {
-            touchListener.handlerPendingDismisses(height);
-        } else {
-            onDismiss(dismissPositions);
-            touchListener.resetPendingDismisses();
-        }
+        int[] dismissPositions = new int[touchListener.getCountChecked()];
+        touchListener.getCheckedPositions(dismissPositions);
+        touchListener.dismiss(dismissPositions, dismissPositions.length);
+        touchListener.processPendingDismisses();
         touchListener.resetOldActions();
     }
 
@@ -288,11 +317,86 @@ public class SwipeListView extends PullToLoadListView {
             public void onChanged() {
                 super.onChanged();
                 onListChanged();
-                touchListener.resetItems();
+                touchListener.onDataSetChanged();
             }
         });
     }
 
+    /**
+     * Notifies this list that {@code itemCount} items were inserted in the adapter
+     * at {@code positionStart}. The swipe and checked states of the following items
+     * are shifted in place instead of being reset.
+     * <p>
+     * This method must be called after the adapter's data is updated, but
+     * <b>before</b> the adapter notifies its observers with
+     * {@code notifyDataSetChanged()}. Several range notifications can precede a
+     * single data set change.
+     * </p>
+     * 
+     * @param positionStart
+     *            The position in the adapter of the first inserted item.
+     * @param itemCount
+     *            The number of inserted items.
+     */
+    public void notifyItemRangeInserted(int positionStart, int itemCount) {
+        touchListener.onItemRangeInserted(positionStart + getHeaderViewsCount(), itemCount);
+    }
+
+    /**
+     * Notifies this list that {@code itemCount} items were removed from the adapter
+     * starting at {@code positionStart}. The states of the removed items are
+     * dropped, and those of the following items are shifted in place.
+     * <p>
+     * See {@link #notifyItemRangeInserted(int, int)} for when to call this method.
+     * </p>
+     * 
+     * @param positionStart
+     *            The former position in the adapter of the first removed item.
+     * @param itemCount
+     *            The number of removed items.
+     */
+    public void notifyItemRangeRemoved(int positionStart, int itemCount) {
+        touchListener.onItemRangeRemoved(positionStart + getHeaderViewsCount(), itemCount);
+    }
+
+    /**
+     * Notifies this list that an item was moved in the adapter. Its states move
+     * with it.
+     * <p>
+     * See {@link #notifyItemRangeInserted(int, int)} for when to call this method.
+     * </p>
+     * 
+     * @param fromPosition
+     *            The former position of the item in the adapter.
+     * @param toPosition
+     *            The new position of the item in the adapter.
+     */
+    public void notifyItemMoved(int fromPosition, int toPosition) {
+        int headers = getHeaderViewsCount();
+        touchListener.onItemMoved(fromPosition + headers, toPosition + headers);
+    }
+
+    /**
+     * Notifies this list that the content of {@code itemCount} items starting at
+     * {@code positionStart} changed, without any item being inserted, removed or
+     * moved. The states of the changed items are kept. If the adapter has stable
+     * IDs and the ID of a changed item is not the same anymore, the item was
+     * replaced: its pending dismiss, if any, is dropped, and so are its states when
+     * they follow the IDs (see {@link #setTrackStableIds(boolean)}). The other
+     * items are not affected.
+     * <p>
+     * See {@link #notifyItemRangeInserted(int, int)} for when to call this method.
+     * </p>
+     * 
+     * @param positionStart
+     *            The position in the adapter of the first changed item.
+     * @param itemCount
+     *            The number of changed items.
+     */
+    public void notifyItemRangeChanged(int positionStart, int itemCount) {
+        touchListener.onItemRangeChanged(positionStart + getHeaderViewsCount(), itemCount);
+    }
+
     @Override
     public void setOnScrollListener(OnScrollListener listener) {
         userScrollListener = listener;
@@ -402,6 +506,81 @@ public class SwipeListView extends PullToLoadListView {
         opts.multipleSelectEnabled = multipleSelectEnabled;
     }
 
+    /**
+     * Sets whether the swipe and check states should follow the items' stable IDs
+     * when the adapter's data changes. This only has an effect if the adapter
+     * {@link ListAdapter#hasStableIds() has stable IDs}, otherwise the states are
+     * reset on every change.
+     * 
+     * @param trackStableIds
+     */
+    public void setTrackStableIds(boolean trackStableIds) {
+        opts.trackStableIds = trackStableIds;
+        touchListener.resetItems();
+    }
+
+    /**
+     * Sets how the swipe and check states of the items are stored. This resets the
+     * current states.
+     * 
+     * @param stateStorage
+     *            {@code 0} (auto), {@code 1} (dense) or {@code 2} (sparse), as for
+     *            the {@code stateStorage} XML attribute.
+     */
+    public void setStateStorage(int stateStorage) {
+        opts.stateStorage = stateStorage;
+        touchListener.resetItems();
+    }
+
+    /**
+     * Sets how the rows of dismissed items collapse. This only applies to the
+     * dismisses started after the current ones are done.
+     * 
+     * @param dismissCollapseMode
+     *            {@code 0} (layout) or {@code 1} (translate), as for the
+     *            {@code dismissCollapseMode} XML attribute.
+     */
+    public void setDismissCollapseMode(int dismissCollapseMode) {
+        opts.dismissCollapseMode = dismissCollapseMode;
+    }
+
+    /**
+     * Sets the time during which dismisses can be undone with
+     * {@link #undoDismiss()}. The dismissed rows stay collapsed during this window,
+     * and all the dismisses made during the window are notified in a single
+     * {@link SwipeListViewListener#onDismiss(int[])} call when it closes, or as
+     * soon as the list is scrolled or its adapter changes. Each new dismiss
+     * restarts the window.
+     * <p>
+     * The positions of the held dismisses follow the range notifications, or the
+     * stable IDs of the items on other changes. Without stable IDs, an adapter
+     * change that is not described by range notifications drops the held
+     * dismisses, and their rows are restored.
+     * </p>
+     * 
+     * @param undoWindow
+     *            milliseconds, or {@code 0} to notify the dismisses as soon as the
+     *            animations end
+     */
+    public void setUndoWindow(long undoWindow) {
+        opts.undoWindow = undoWindow;
+    }
+
+    /**
+     * Sets how the items released after a swipe reach their final position. In
+     * spring mode, an item released to be opened, closed or dismissed keeps the
+     * velocity of the gesture and settles with a spring, so that fast flings end
+     * sooner; the animation time then only bounds the duration of slow releases.
+     * Items moving back to their current state always use the animation time.
+     * 
+     * @param releaseMode
+     *            {@code 0} (duration) or {@code 1} (spring), as for the
+     *            {@code releaseMode} XML attribute.
+     */
+    public void setReleaseMode(int releaseMode) {
+        opts.releaseMode = releaseMode;
+    }
+
     /**
      * Set if all item opened will be close when the user move ListView
      * 
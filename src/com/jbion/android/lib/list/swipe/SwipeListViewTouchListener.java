@@ -1,7 +1,7 @@
 package com.jbion.android.lib.list.swipe;
 
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
 import java.util.List;
 
 import android.animation.Animator;
@@ -10,20 +10,24 @@ import android.animation.ValueAnimator;
 import android.animation.ValueAnimator.AnimatorUpdateListener;
 import android.annotation.TargetApi;
 import android.content.Context;
-import android.graphics.Rect;
 import android.os.Build;
-import android.os.Handler;
 import android.support.v4.view.MotionEventCompat;
 import android.util.Log;
 import android.view.MotionEvent;
 import android.view.VelocityTracker;
 import android.view.View;
 import android.view.ViewConfiguration;
-import android.view.ViewGroup;
+import android.view.ViewPropertyAnimator;
+import android.view.animation.AccelerateDecelerateInterpolator;
+import android.view.animation.Interpolator;
 import android.widget.AbsListView;
 import android.widget.AdapterView;
 import android.widget.ListAdapter;
 
+import com.jbion.android.lib.util.DebugLog;
+import com.jbion.android.pulltorefresh.R;
+import com.nineoldandroids.animation.SpringInterpolator;
+
 // import com.nineoldandroids.animation.Animator;
 // import com.nineoldandroids.animation.AnimatorListenerAdapter;
 // import com.nineoldandroids.animation.AnimatorUpdateListener;
@@ -40,6 +44,24 @@ class SwipeListViewTouchListener implements View.OnTouchListener {
 
     private static final int DISPLACE_CHOICE = 80;
 
+    /**
+     * Product of the frequency of the release springs and the animation time: a
+     * critically damped spring released from rest covers a row in about that many
+     * time constants.
+     */
+    private static final float SPRING_SETTLE_TIME_CONSTANTS = 8f;
+    /**
+     * Ratio between the stiffest and the softest release spring, which bounds how
+     * much a fling can shorten the release animation.
+     */
+    private static final float SPRING_MAX_STIFFNESS_RATIO = 4f;
+    /**
+     * Interpolator of the non-spring animations, restored on the views'
+     * ViewPropertyAnimator after a spring release.
+     */
+    private static final Interpolator DEFAULT_INTERPOLATOR =
+            new AccelerateDecelerateInterpolator();
+
     /**
      * Indicates no movement
      */
@@ -64,23 +86,93 @@ class SwipeListViewTouchListener implements View.OnTouchListener {
 
     private int viewWidth = 1; // 1 and not 0 to prevent dividing by zero
 
-    private List<PendingDismissData> pendingDismisses = new ArrayList<PendingDismissData>();
+    /**
+     * Positions of the dismissed items waiting to be notified, kept up to date with
+     * the changes of the adapter. {@link AdapterView#INVALID_POSITION} marks the
+     * items that were removed from the adapter since, which are not notified.
+     */
+    private int[] pendingDismissPositions = new int[0];
+    /**
+     * IDs of the pending dismisses, used to find their positions after a data set
+     * change when the adapter has stable IDs.
+     */
+    private long[] pendingDismissIds = new long[0];
+    /**
+     * Rows of the pending dismisses, in the same order as their positions, or
+     * {@code null} for the items that were not visible.
+     */
+    private View[] pendingDismissViews = new View[0];
+    private int pendingDismissCount = 0;
+    /**
+     * Commits the pending dismisses when the undo window closes.
+     */
+    private final Runnable commitDismissesRunnable = new Runnable() {
+        @Override
+        public void run() {
+            commitPendingDismisses();
+        }
+    };
     private int dismissAnimationRefCount = 0;
+    /**
+     * Collapses all the dismissed rows, created on first dismiss.
+     */
+    private RowCollapseAnimator rowCollapseAnimator;
+
+    /**
+     * Recycled end listeners of the swipe animations, to avoid allocating a
+     * listener per animated row.
+     */
+    private final SwipeAnimationListener[] animationListenerPool =
+            new SwipeAnimationListener[MAX_POOLED_ANIMATION_LISTENERS];
+    private int pooledAnimationListenerCount = 0;
+
+    private static final int MAX_POOLED_ANIMATION_LISTENERS = 16;
+
+    private static final int ANIMATION_REVEAL = 0;
+    private static final int ANIMATION_DISMISS = 1;
+
+    /**
+     * Storage type of {@link #states} when it follows the stable IDs of the items.
+     */
+    private static final int STATE_STORAGE_STABLE_IDS = -1;
 
     private boolean paused;
-    private List<Boolean> swiped = new ArrayList<Boolean>();
-    private List<Boolean> swipedToRight = new ArrayList<Boolean>();
-    private List<Boolean> checked = new ArrayList<Boolean>();
+    private SwipeStateStore states = new DenseSwipeStateStore();
+    private int statesStorage = SwipeOptions.STATE_STORAGE_DENSE;
+    /**
+     * Whether the next data set change was described by range notifications, which
+     * already updated {@link #states} and the pending dismisses.
+     */
+    private boolean changeDescribed = false;
 
     private final Item movingItem = new Item();
+
+    /**
+     * Long click listener shared by all the front views, toggling the swipe state
+     * of the clicked item. The position is resolved at click time, so that the
+     * listener does not depend on the row's current binding.
+     */
+    private final View.OnLongClickListener longClickListener = new View.OnLongClickListener() {
+        @Override
+        public boolean onLongClick(View v) {
+            int position = listView.getPositionForView(v);
+            if (position == AdapterView.INVALID_POSITION) {
+                return false;
+            }
+            if (states.isSwiped(position)) {
+                unswipe(position);
+            } else {
+                swipe(position);
+            }
+            return true;
+        }
+    };
     private final Motion currentMotion = new Motion();
 
     private int currentAction;
     private int currentActionLeft;
     private int currentActionRight;
 
-    private final Rect rect = new Rect();
-
     /**
      * Constructor
      * 
@@ -128,28 +220,230 @@ class SwipeListViewTouchListener implements View.OnTouchListener {
      * Resets the items' state. Call this method when the adapter is modified.
      */
     public void resetItems() {
-        if (listView.getAdapter() != null) {
-            swiped.clear();
-            swipedToRight.clear();
-            checked.clear();
-            for (int i = 0; i <= listView.getAdapter().getCount(); i++) {
-                swiped.add(false);
-                swipedToRight.add(false);
-                checked.add(false);
+        ListAdapter adapter = listView.getAdapter();
+        if (adapter != null) {
+            updateStateStore(adapter);
+            states.reset(adapter.getCount() + 1);
+        }
+    }
+
+    /**
+     * Updates the items' state after a change in the adapter's data. The states
+     * are kept if they can follow the items' stable IDs, and reset otherwise.
+     */
+    public void onDataSetChanged() {
+        boolean described = changeDescribed;
+        changeDescribed = false;
+        ListAdapter adapter = listView.getAdapter();
+        if (adapter != null) {
+            // false if there was no range notification, or if they did not match the
+            // actual change
+            boolean tracked = described && states.size() == adapter.getCount() + 1;
+            if (updateStateStore(adapter)) {
+                states.reset(adapter.getCount() + 1);
+            } else if (!tracked) {
+                states.onDataSetChanged(adapter.getCount() + 1);
+            }
+            if (pendingDismissCount > 0) {
+                if (!tracked) {
+                    remapPendingDismisses(adapter);
+                }
+                if (dismissAnimationRefCount == 0) {
+                    // the next layout may rebind the collapsed rows to other items
+                    commitPendingDismisses();
+                }
+            }
+        }
+    }
+
+    /**
+     * Shifts the items' states after the insertion of items in the adapter.
+     * 
+     * @param position
+     *            position in list of the first inserted item
+     * @param count
+     *            number of inserted items
+     */
+    public void onItemRangeInserted(int position, int count) {
+        states.insertRange(position, count);
+        for (int i = 0; i < pendingDismissCount; i++) {
+            if (pendingDismissPositions[i] >= position) {
+                pendingDismissPositions[i] += count;
+            }
+        }
+        changeDescribed = true;
+    }
+
+    /**
+     * Shifts the items' states after the removal of items from the adapter.
+     * 
+     * @param position
+     *            position in list of the first removed item
+     * @param count
+     *            number of removed items
+     */
+    public void onItemRangeRemoved(int position, int count) {
+        states.removeRange(position, count);
+        int end = position + count;
+        for (int i = 0; i < pendingDismissCount; i++) {
+            int pending = pendingDismissPositions[i];
+            if (pending >= end) {
+                pendingDismissPositions[i] = pending - count;
+            } else if (pending >= position) {
+                // already removed, nothing to notify
+                pendingDismissPositions[i] = AdapterView.INVALID_POSITION;
             }
         }
+        changeDescribed = true;
+    }
+
+    /**
+     * Moves the state of an item that was moved in the adapter.
+     * 
+     * @param from
+     *            former position in list of the item
+     * @param to
+     *            new position in list of the item
+     */
+    public void onItemMoved(int from, int to) {
+        states.moveItem(from, to);
+        for (int i = 0; i < pendingDismissCount; i++) {
+            int pending = pendingDismissPositions[i];
+            if (pending == from) {
+                pendingDismissPositions[i] = to;
+            } else if (pending > from && pending <= to) {
+                pendingDismissPositions[i] = pending - 1;
+            } else if (pending >= to && pending < from) {
+                pendingDismissPositions[i] = pending + 1;
+            }
+        }
+        changeDescribed = true;
+    }
+
+    /**
+     * Keeps the items' states after a change of the content of some items, which
+     * did not move. If the adapter has stable IDs, the changed items whose ID
+     * changed were replaced: their states and pending dismisses are dropped.
+     * 
+     * @param position
+     *            position in list of the first changed item
+     * @param count
+     *            number of changed items
+     */
+    public void onItemRangeChanged(int position, int count) {
+        states.changeRange(position, count);
+        ListAdapter adapter = listView.getAdapter();
+        if (adapter != null && adapter.hasStableIds()) {
+            int end = position + count;
+            for (int i = 0; i < pendingDismissCount; i++) {
+                int pending = pendingDismissPositions[i];
+                if (pending >= position && pending < end
+                        && listView.getItemIdAtPosition(pending) != pendingDismissIds[i]) {
+                    // another item must not be dismissed in its place
+                    pendingDismissPositions[i] = AdapterView.INVALID_POSITION;
+                }
+            }
+        }
+        changeDescribed = true;
+    }
+
+    /**
+     * Finds the positions of the pending dismisses after a data set change that was
+     * not described by range notifications. Without stable IDs, the items can't be
+     * found anymore, and the dismisses are dropped rather than notified with
+     * positions that may now designate other items.
+     */
+    private void remapPendingDismisses(ListAdapter adapter) {
+        if (adapter.hasStableIds()) {
+            StableIdSwipeStateStore.findPositions(adapter, pendingDismissIds,
+                    pendingDismissPositions, pendingDismissCount);
+            return;
+        }
+        DebugLog.w(LOG_TAG, "Dropping %s pending dismisses: the adapter changed and "
+                + "has no stable IDs", pendingDismissCount);
+        Arrays.fill(pendingDismissPositions, 0, pendingDismissCount,
+                AdapterView.INVALID_POSITION);
+    }
+
+    /**
+     * Switches to the state store matching the options and the specified adapter,
+     * if the current one does not.
+     * 
+     * @param adapter
+     *            The adapter of the list.
+     * @return {@code true} if a new store was created, {@code false} if the current
+     *         one was kept.
+     */
+    private boolean updateStateStore(ListAdapter adapter) {
+        int storage = opts.trackStableIds && adapter.hasStableIds() ? STATE_STORAGE_STABLE_IDS
+                : opts.stateStorage;
+        if (storage == statesStorage) {
+            return false;
+        }
+        switch (storage) {
+        case STATE_STORAGE_STABLE_IDS:
+            states = new StableIdSwipeStateStore(listView);
+            break;
+        case SwipeOptions.STATE_STORAGE_DENSE:
+            states = new DenseSwipeStateStore();
+            break;
+        case SwipeOptions.STATE_STORAGE_SPARSE:
+            states = new SparseSwipeStateStore();
+            break;
+        default:
+            states = new AdaptiveSwipeStateStore();
+            break;
+        }
+        statesStorage = storage;
+        return true;
+    }
+
+    /**
+     * Returns the holder of the specified row, creating it on first access. The
+     * holder is kept in the row's tags, so that the front and back views are only
+     * looked up once per row, even when it is recycled.
+     * 
+     * @param row
+     *            a child view of the list
+     * @return the holder of the row
+     */
+    private RowHolder getRowHolder(View row) {
+        RowHolder holder = (RowHolder) row.getTag(R.id.swipelistview_row_holder);
+        if (holder == null) {
+            holder = new RowHolder();
+            holder.frontView = row.findViewById(opts.frontViewId);
+            if (opts.backViewId > 0) {
+                holder.backView = row.findViewById(opts.backViewId);
+            }
+            row.setTag(R.id.swipelistview_row_holder, holder);
+        }
+        return holder;
+    }
+
+    /**
+     * Returns the front view of the visible item at the specified position.
+     * 
+     * @param position
+     *            position in list, which must be visible
+     * @return the front view of the item
+     */
+    private View getVisibleFrontView(int position) {
+        View row = listView.getChildAt(position - listView.getFirstVisiblePosition());
+        return getRowHolder(row).frontView;
     }
 
     /**
      * Draw cell for display if item is selected or not
      * 
      * @param convertView
-     *            the front view to reload
+     *            the item's view to reload
      * @param position
      *            position in list
      */
-    protected void initViewSwipeState(View convertView, final int position) {
-        View frontView = convertView.findViewById(opts.frontViewId);
+    protected void initViewSwipeState(View convertView, int position) {
+        View frontView = getRowHolder(convertView).frontView;
+        // the row may be recycled in the middle of a swipe animation
+        endAnimation(frontView, position);
         if (isChecked(position)) {
             if (opts.drawableChecked > 0)
                 frontView.setBackgroundResource(opts.drawableChecked);
@@ -158,21 +452,11 @@ class SwipeListViewTouchListener implements View.OnTouchListener {
                 frontView.setBackgroundResource(opts.drawableUnchecked);
         }
         if (opts.openOnLongClick) {
-            frontView.setOnLongClickListener(new View.OnLongClickListener() {
-                @Override
-                public boolean onLongClick(View v) {
-                    if (swiped.get(position)) {
-                        unswipe(position);
-                    } else {
-                        swipe(position);
-                    }
-                    return true;
-                }
-            });
+            frontView.setOnLongClickListener(longClickListener);
             frontView.setLongClickable(true);
         }
-        if (swiped.get(position)) {
-            setTranslationX(frontView, getSwipedOffset(swipedToRight.get(position)));
+        if (states.isSwiped(position)) {
+            setTranslationX(frontView, getSwipedOffset(states.isSwipedToRight(position)));
         } else {
             setTranslationX(frontView, 0);
         }
@@ -184,13 +468,7 @@ class SwipeListViewTouchListener implements View.OnTouchListener {
      * @return the number of swiped items
      */
     protected int getCountSwiped() {
-        int count = 0;
-        for (int i = 0; i < swiped.size(); i++) {
-            if (swiped.get(i)) {
-                count++;
-            }
-        }
-        return count;
+        return states.getCountSwiped();
     }
 
     /**
@@ -203,13 +481,7 @@ class SwipeListViewTouchListener implements View.OnTouchListener {
      * @return the number of swiped items
      */
     protected int getCountSwiped(boolean toRight) {
-        int count = 0;
-        for (int i = 0; i < swiped.size(); i++) {
-            if (swiped.get(i) && (swipedToRight.get(i) == toRight)) {
-                count++;
-            }
-        }
-        return count;
+        return states.getCountSwiped(toRight);
     }
 
     /**
@@ -219,14 +491,32 @@ class SwipeListViewTouchListener implements View.OnTouchListener {
      */
     protected List<Integer> getSwipedPositions() {
         List<Integer> list = new ArrayList<Integer>();
-        for (int i = 0; i < swiped.size(); i++) {
-            if (swiped.get(i)) {
-                list.add(i);
-            }
+        for (int i = states.nextSwiped(0); i >= 0; i = states.nextSwiped(i + 1)) {
+            list.add(i);
         }
         return list;
     }
 
+    /**
+     * Writes the positions of all the swiped items into the specified buffer, in
+     * ascending order. Nothing is allocated.
+     * 
+     * @param positions
+     *            the buffer to fill
+     * @return the number of swiped items. If it is greater than the length of the
+     *         buffer, only the first positions were written.
+     */
+    protected int getSwipedPositions(int[] positions) {
+        int count = 0;
+        for (int i = states.nextSwiped(0); i >= 0; i = states.nextSwiped(i + 1)) {
+            if (count < positions.length) {
+                positions[count] = i;
+            }
+            count++;
+        }
+        return count;
+    }
+
     /**
      * Returns the positions of the items that were swiped towards the specified
      * direction.
@@ -238,8 +528,8 @@ class SwipeListViewTouchListener implements View.OnTouchListener {
      */
     protected List<Integer> getSwipedPositions(boolean toRight) {
         List<Integer> list = new ArrayList<Integer>();
-        for (int i = 0; i < swiped.size(); i++) {
-            if (swiped.get(i) && (swipedToRight.get(i) == toRight)) {
+        for (int i = states.nextSwiped(0); i >= 0; i = states.nextSwiped(i + 1)) {
+            if (states.isSwipedToRight(i) == toRight) {
                 list.add(i);
             }
         }
@@ -257,10 +547,9 @@ class SwipeListViewTouchListener implements View.OnTouchListener {
         int last = listView.getLastVisiblePosition();
         if (position >= first && position <= last) {
             // the affected view is visible
-            openAnimate(listView.getChildAt(position - first).findViewById(opts.frontViewId),
-                    position);
+            openAnimate(getVisibleFrontView(position), position);
         } else {
-            swiped.set(position, true);
+            states.setSwiped(position, true);
         }
     }
 
@@ -275,10 +564,9 @@ class SwipeListViewTouchListener implements View.OnTouchListener {
         int last = listView.getLastVisiblePosition();
         if (position >= first && position <= last) {
             // the affected view is visible
-            closeAnimate(listView.getChildAt(position - first).findViewById(opts.frontViewId),
-                    position);
+            closeAnimate(getVisibleFrontView(position), position);
         } else {
-            swiped.set(position, false);
+            states.setSwiped(position, false);
         }
     }
 
@@ -290,28 +578,90 @@ class SwipeListViewTouchListener implements View.OnTouchListener {
         int last = listView.getLastVisiblePosition();
         // animate all visible closing items
         for (int i = first; i <= last; i++) {
-            closeAnimate(listView.getChildAt(i - first).findViewById(opts.frontViewId), i);
+            closeAnimate(getRowHolder(listView.getChildAt(i - first)).frontView, i);
         }
         // close all items
-        for (int i = 0; i < swiped.size(); i++) {
-            swiped.set(i, false);
-        }
+        states.unswipeAll();
     }
 
     /**
-     * Unselected choice state in item
+     * Queues the dismiss of the item at the specified position, animating its row
+     * if it is visible. {@link #processPendingDismisses()} must be called once all
+     * the dismisses are queued.
+     * 
+     * @param position
+     *            position in list of the item to dismiss
      */
-    protected int dismiss(int position) {
+    protected void dismiss(int position) {
         int start = listView.getFirstVisiblePosition();
         int end = listView.getLastVisiblePosition();
-        View view = listView.getChildAt(position - start);
-        ++dismissAnimationRefCount;
         if (position >= start && position <= end) {
-            performDismiss(view, position, false);
-            return view.getHeight();
+            ++dismissAnimationRefCount;
+            performDismiss(listView.getChildAt(position - start), position);
         } else {
-            pendingDismisses.add(new PendingDismissData(position, null));
-            return 0;
+            addPendingDismiss(position, null);
+        }
+    }
+
+    /**
+     * Queues the dismiss of the items at the specified positions. Only the visible
+     * ones are animated, the others are just stored to be notified with them.
+     * {@link #processPendingDismisses()} must be called once all the dismisses are
+     * queued.
+     * 
+     * @param positions
+     *            positions in list of the items to dismiss
+     * @param count
+     *            number of positions to read from {@code positions}
+     */
+    protected void dismiss(int[] positions, int count) {
+        int start = listView.getFirstVisiblePosition();
+        int end = listView.getLastVisiblePosition();
+        ensurePendingDismissCapacity(count);
+        for (int i = 0; i < count; i++) {
+            int position = positions[i];
+            if (position >= start && position <= end) {
+                ++dismissAnimationRefCount;
+                performDismiss(listView.getChildAt(position - start), position);
+            } else {
+                addPendingDismiss(position, null);
+            }
+        }
+    }
+
+    private void ensurePendingDismissCapacity(int additionalCount) {
+        int capacity = pendingDismissCount + additionalCount;
+        if (capacity > pendingDismissPositions.length) {
+            capacity = Math.max(capacity, pendingDismissPositions.length * 2);
+            pendingDismissPositions = Arrays.copyOf(pendingDismissPositions, capacity);
+            pendingDismissIds = Arrays.copyOf(pendingDismissIds, capacity);
+            pendingDismissViews = Arrays.copyOf(pendingDismissViews, capacity);
+        }
+    }
+
+    /**
+     * Holds the dismiss of the item at the specified position until it is notified.
+     * 
+     * @param position
+     *            position in list of the dismissed item
+     * @param view
+     *            row of the item, or {@code null} if it is not visible
+     */
+    private void addPendingDismiss(int position, View view) {
+        ensurePendingDismissCapacity(1);
+        pendingDismissPositions[pendingDismissCount] = position;
+        pendingDismissIds[pendingDismissCount] = listView.getItemIdAtPosition(position);
+        pendingDismissViews[pendingDismissCount] = view;
+        pendingDismissCount++;
+    }
+
+    /**
+     * Notifies the pending dismisses right away if no dismiss animation is running.
+     * Otherwise, they are notified when the last animation ends.
+     */
+    protected void processPendingDismisses() {
+        if (dismissAnimationRefCount == 0 && pendingDismissCount > 0) {
+            removePendingDismisses();
         }
     }
 
@@ -323,76 +673,124 @@ class SwipeListViewTouchListener implements View.OnTouchListener {
      * @param dismissPosition
      *            Position of list
      */
+    protected void performDismiss(View dismissView, int dismissPosition) {
+        addPendingDismiss(dismissPosition, dismissView);
+        collapseDismissedRow(dismissView);
+    }
+
+    /**
+     * Collapses the row of a pending dismiss. The end of the collapse releases one
+     * dismiss animation.
+     * 
+     * @param dismissView
+     *            the row to collapse
+     */
     @TargetApi(Build.VERSION_CODES.HONEYCOMB)
-    protected void performDismiss(final View dismissView, final int dismissPosition,
-            boolean doPendingDismiss) {
-        final ViewGroup.LayoutParams lp = dismissView.getLayoutParams();
-        final int originalHeight = dismissView.getHeight();
-
-        ValueAnimator animator = ValueAnimator.ofInt(originalHeight, 1).setDuration(
-                opts.animationTime);
-
-        if (doPendingDismiss) {
-            animator.addListener(new AnimatorListenerAdapter() {
-                @Override
-                public void onAnimationEnd(Animator animation) {
-                    --dismissAnimationRefCount;
-                    if (dismissAnimationRefCount == 0) {
-                        removePendingDismisses(originalHeight);
-                    }
-                }
-            });
+    private void collapseDismissedRow(View dismissView) {
+        if (rowCollapseAnimator == null) {
+            rowCollapseAnimator = new RowCollapseAnimator(listView,
+                    new RowCollapseAnimator.OnRowCollapsedListener() {
+                        @Override
+                        public void onRowCollapsed(View row) {
+                            // the last animation to end notifies all the dismisses
+                            --dismissAnimationRefCount;
+                            if (dismissAnimationRefCount == 0) {
+                                removePendingDismisses();
+                            }
+                        }
+                    });
         }
+        rowCollapseAnimator.setDuration(opts.animationTime);
+        rowCollapseAnimator.setMode(opts.dismissCollapseMode);
+        rowCollapseAnimator.collapse(dismissView);
+    }
 
-        animator.addUpdateListener(new AnimatorUpdateListener() {
-            @Override
-            public void onAnimationUpdate(ValueAnimator valueAnimator) {
-                lp.height = (Integer) valueAnimator.getAnimatedValue();
-                dismissView.setLayoutParams(lp);
-            }
-        });
-
-        pendingDismisses.add(new PendingDismissData(dismissPosition, dismissView));
-        animator.start();
+    /**
+     * Called when no dismiss animation is running anymore. The pending dismisses
+     * are committed right away, or when the undo window closes if there is one.
+     * Dismissing another item restarts the window.
+     */
+    private void removePendingDismisses() {
+        if (opts.undoWindow > 0) {
+            // rows stay collapsed until the commit or the undo
+            listView.removeCallbacks(commitDismissesRunnable);
+            listView.postDelayed(commitDismissesRunnable, opts.undoWindow);
+        } else {
+            notifyPendingDismisses();
+        }
     }
 
-    protected void resetPendingDismisses() {
-        pendingDismisses.clear();
+    /**
+     * Notifies the pending dismisses immediately, without waiting for the end of the
+     * undo window. Nothing happens if a dismiss animation is still running.
+     */
+    protected void commitPendingDismisses() {
+        if (dismissAnimationRefCount == 0 && pendingDismissCount > 0) {
+            listView.removeCallbacks(commitDismissesRunnable);
+            notifyPendingDismisses();
+        }
     }
 
-    protected void handlerPendingDismisses(final int originalHeight) {
-        Handler handler = new Handler();
-        handler.postDelayed(new Runnable() {
-            @Override
-            public void run() {
-                removePendingDismisses(originalHeight);
-            }
-        }, opts.animationTime + 100);
+    /**
+     * Cancels the pending dismisses that are waiting for the end of the undo
+     * window, and restores their rows instantly.
+     * 
+     * @return {@code true} if dismisses were cancelled, {@code false} if there was
+     *         nothing to undo or a dismiss animation is still running.
+     */
+    protected boolean undoPendingDismisses() {
+        if (dismissAnimationRefCount > 0 || pendingDismissCount == 0) {
+            return false;
+        }
+        listView.removeCallbacks(commitDismissesRunnable);
+        restorePendingDismissViews();
+        return true;
     }
 
-    private void removePendingDismisses(int originalHeight) {
+    private void notifyPendingDismisses() {
         // No active animations, process all pending dismisses.
+        int count = 0;
+        int[] dismissPositions = new int[pendingDismissCount];
+        for (int i = 0; i < pendingDismissCount; i++) {
+            if (pendingDismissPositions[i] != AdapterView.INVALID_POSITION) {
+                dismissPositions[count++] = pendingDismissPositions[i];
+            }
+        }
+        // cleared first, as the listener is likely to change the adapter
+        restorePendingDismissViews();
+        if (count == 0) {
+            return;
+        }
+        dismissPositions = Arrays.copyOf(dismissPositions, count);
         // Sort by descending position
-        Collections.sort(pendingDismisses);
-
-        int[] dismissPositions = new int[pendingDismisses.size()];
-        for (int i = pendingDismisses.size() - 1; i >= 0; i--) {
-            dismissPositions[i] = pendingDismisses.get(i).position;
+        Arrays.sort(dismissPositions);
+        for (int i = 0, j = count - 1; i < j; i++, j--) {
+            int tmp = dismissPositions[i];
+            dismissPositions[i] = dismissPositions[j];
+            dismissPositions[j] = tmp;
         }
         listView.onDismiss(dismissPositions);
+    }
 
-        ViewGroup.LayoutParams lp;
-        for (PendingDismissData pendingDismiss : pendingDismisses) {
+    /**
+     * Resets the presentation of the rows of the pending dismisses, and clears
+     * them.
+     */
+    private void restorePendingDismissViews() {
+        for (int i = 0; i < pendingDismissCount; i++) {
             // Reset view presentation
-            if (pendingDismiss.view != null) {
-                setAlpha(pendingDismiss.view, 1f);
-                setTranslationX(pendingDismiss.view, 0);
-                lp = pendingDismiss.view.getLayoutParams();
-                lp.height = originalHeight;
-                pendingDismiss.view.setLayoutParams(lp);
+            View view = pendingDismissViews[i];
+            if (view != null) {
+                setAlpha(view, 1f);
+                setTranslationX(view, 0);
+                pendingDismissViews[i] = null;
             }
         }
-        resetPendingDismisses();
+        if (rowCollapseAnimator != null) {
+            // restores the heights, or the translations of the rows below
+            rowCollapseAnimator.restore();
+        }
+        pendingDismissCount = 0;
     }
 
     /**
@@ -401,13 +799,7 @@ class SwipeListViewTouchListener implements View.OnTouchListener {
      * @return the number of checked items
      */
     protected int getCountChecked() {
-        int count = 0;
-        for (int i = 0; i < checked.size(); i++) {
-            if (checked.get(i)) {
-                count++;
-            }
-        }
-        return count;
+        return states.getCountChecked();
     }
 
     /**
@@ -417,14 +809,32 @@ class SwipeListViewTouchListener implements View.OnTouchListener {
      */
     protected List<Integer> getCheckedPositions() {
         List<Integer> list = new ArrayList<Integer>();
-        for (int i = 0; i < checked.size(); i++) {
-            if (checked.get(i)) {
-                list.add(i);
-            }
+        for (int i = states.nextChecked(0); i >= 0; i = states.nextChecked(i + 1)) {
+            list.add(i);
         }
         return list;
     }
 
+    /**
+     * Writes the positions of the checked items into the specified buffer, in
+     * ascending order. Nothing is allocated.
+     * 
+     * @param positions
+     *            the buffer to fill
+     * @return the number of checked items. If it is greater than the length of the
+     *         buffer, only the first positions were written.
+     */
+    protected int getCheckedPositions(int[] positions) {
+        int count = 0;
+        for (int i = states.nextChecked(0); i >= 0; i = states.nextChecked(i + 1)) {
+            if (count < positions.length) {
+                positions[count] = i;
+            }
+            count++;
+        }
+        return count;
+    }
+
     /**
      * Get if item is selected
      * 
@@ -433,7 +843,7 @@ class SwipeListViewTouchListener implements View.OnTouchListener {
      * @return {@code true} if item is selected
      */
     protected boolean isChecked(int position) {
-        return position < checked.size() && checked.get(position);
+        return states.isChecked(position);
     }
 
     /**
@@ -443,11 +853,13 @@ class SwipeListViewTouchListener implements View.OnTouchListener {
      *            position of list
      */
     private void swapCheckedState(int position) {
-        Log.i(LOG_TAG, "Swapping checked state for position " + position);
-        int lastCount = getCountChecked();
-        boolean lastChecked = checked.get(position);
-        checked.set(position, !lastChecked);
-        int count = lastChecked ? lastCount - 1 : lastCount + 1;
+        if (DebugLog.isLoggable(Log.DEBUG)) {
+            DebugLog.d(LOG_TAG, "Swapping checked state for position %s", position);
+        }
+        int lastCount = states.getCountChecked();
+        boolean lastChecked = states.isChecked(position);
+        states.setChecked(position, !lastChecked);
+        int count = states.getCountChecked();
         if (lastCount == 0 && count == 1) {
             listView.onChoiceStarted();
             unswipeAllItems();
@@ -461,7 +873,7 @@ class SwipeListViewTouchListener implements View.OnTouchListener {
             listView.setItemChecked(position, !lastChecked);
         }
         listView.onChoiceChanged(position, !lastChecked);
-        initViewSwipeState(movingItem.frontView, position);
+        initViewSwipeState(movingItem.view, position);
     }
 
     /**
@@ -470,12 +882,12 @@ class SwipeListViewTouchListener implements View.OnTouchListener {
     protected void uncheckAllItems() {
         int start = listView.getFirstVisiblePosition();
         int end = listView.getLastVisiblePosition();
-        for (int i = 0; i < checked.size(); i++) {
-            if (checked.get(i) && i >= start && i <= end) {
-                initViewSwipeState(listView.getChildAt(i - start).findViewById(opts.frontViewId), i);
-            }
-            checked.set(i, false);
+        int i = states.nextChecked(start);
+        while (i >= 0 && i <= end) {
+            initViewSwipeState(listView.getChildAt(i - start), i);
+            i = states.nextChecked(i + 1);
         }
+        states.uncheckAll();
         listView.onChoiceEnded();
         resetOldActions();
     }
@@ -492,13 +904,15 @@ class SwipeListViewTouchListener implements View.OnTouchListener {
             public void onScrollStateChanged(AbsListView absListView, int scrollState) {
                 setSwipeEnabled(scrollState != AbsListView.OnScrollListener.SCROLL_STATE_TOUCH_SCROLL);
                 if (scrollState == SCROLL_STATE_TOUCH_SCROLL || scrollState == SCROLL_STATE_FLING) {
-                    Log.i(LOG_TAG, "ScrollStateChanged: scrolling/flinging now");
+                    DebugLog.d(LOG_TAG, "ScrollStateChanged: scrolling/flinging now");
                     if (opts.closeAllItemsOnScroll) {
-                        Log.w(LOG_TAG, "ScrollStateChanged: close everything!");
+                        DebugLog.d(LOG_TAG, "ScrollStateChanged: close everything!");
                         unswipeAllItems();
                     }
+                    // collapsed rows must not be recycled for other items
+                    commitPendingDismisses();
                 } else {
-                    Log.i(LOG_TAG, "ScrollStateChanged: no more scrolling");
+                    DebugLog.d(LOG_TAG, "ScrollStateChanged: no more scrolling");
                 }
             }
 
@@ -522,9 +936,11 @@ class SwipeListViewTouchListener implements View.OnTouchListener {
      *            Position of list
      */
     private void openAnimate(View view, int position) {
-        if (!swiped.get(position)) {
-            Log.d(LOG_TAG, "openAnimate: item " + position);
-            animateReveal(view, true, false, position);
+        if (!states.isSwiped(position)) {
+            if (DebugLog.isLoggable(Log.DEBUG)) {
+                DebugLog.d(LOG_TAG, "openAnimate: item %s", position);
+            }
+            animateReveal(view, true, false, position, 0);
         }
     }
 
@@ -537,9 +953,11 @@ class SwipeListViewTouchListener implements View.OnTouchListener {
      *            Position of list
      */
     private void closeAnimate(View view, int position) {
-        if (swiped.get(position)) {
-            Log.d(LOG_TAG, "closeAnimate: item " + position);
-            animateReveal(view, true, swipedToRight.get(position), position);
+        if (states.isSwiped(position)) {
+            if (DebugLog.isLoggable(Log.DEBUG)) {
+                DebugLog.d(LOG_TAG, "closeAnimate: item %s", position);
+            }
+            animateReveal(view, true, states.isSwipedToRight(position), position, 0);
         }
     }
 
@@ -554,18 +972,29 @@ class SwipeListViewTouchListener implements View.OnTouchListener {
      * @param toRight
      *            {@code true} if the triggering movement is towards the right. This
      *            parameter should be ignored when {@code changeState==false}.
+     * @param velocity
+     *            The horizontal velocity of the release, in pixels per second, or 0
+     *            if the item is not released by a gesture. It is only used to
+     *            continue the gesture when {@code changeState==true}.
      */
-    private void animateMovingItem(final boolean changeState, final boolean toRight) {
-        Log.d(LOG_TAG, "Animation: "
-                + (changeState ? "swiping " + (toRight ? "right" : "left") : "releasing")
-                + " item " + movingItem.position);
-        int action = swiped.get(movingItem.position) ? SwipeOptions.ACTION_REVEAL
+    private void animateMovingItem(final boolean changeState, final boolean toRight,
+            float velocity) {
+        if (DebugLog.isLoggable(Log.DEBUG)) {
+            DebugLog.d(LOG_TAG, "Animation: %s item %s",
+                    changeState ? "swiping " + (toRight ? "right" : "left") : "releasing",
+                    movingItem.position);
+        }
+        int action = states.isSwiped(movingItem.position) ? SwipeOptions.ACTION_REVEAL
                 : toRight ? currentActionRight : currentActionLeft;
+        // snap-backs don't continue the gesture, they move against it
+        float releaseVelocity = changeState ? velocity : 0;
         if (action == SwipeOptions.ACTION_REVEAL) {
-            animateReveal(movingItem.frontView, changeState, toRight, movingItem.position);
+            animateReveal(movingItem.frontView, changeState, toRight, movingItem.position,
+                    releaseVelocity);
         }
         if (action == SwipeOptions.ACTION_DISMISS) {
-            animateDismiss(movingItem.view, changeState, toRight, movingItem.position);
+            animateDismiss(movingItem.view, changeState, toRight, movingItem.position,
+                    releaseVelocity);
         }
         if (action == SwipeOptions.ACTION_CHOICE) {
             animateChoice(movingItem.frontView, movingItem.position);
@@ -584,26 +1013,36 @@ class SwipeListViewTouchListener implements View.OnTouchListener {
      *            or left
      * @param position
      *            list position
+     * @param velocity
+     *            release velocity in pixels per second, 0 if not released by a
+     *            gesture
      */
-    private void animateReveal(final View view, final boolean changeState, final boolean toRight,
-            final int position) {
-        final boolean isOpen = swiped.get(position);
+    private void animateReveal(View view, boolean changeState, boolean toRight, int position,
+            float velocity) {
+        boolean isOpen = states.isSwiped(position);
 
         int moveTo = changeState ^ isOpen ? getSwipedOffset(toRight) : 0;
 
-        animate(view, moveTo, opts.animationTime, new Runnable() {
-            @Override
-            public void run() {
-                if (changeState && !isOpen) {
-                    swiped.set(position, true);
-                    swipedToRight.set(position, toRight);
-                    listView.onSwiped(position, toRight);
-                } else if (changeState && isOpen) {
-                    swiped.set(position, false);
-                    listView.onUnswiped(position, !toRight);
-                }
-            }
-        });
+        SwipeAnimationListener listener = null;
+        if (changeState) {
+            listener = obtainAnimationListener(ANIMATION_REVEAL, view, position, toRight);
+            listener.wasSwiped = isOpen;
+        }
+        animate(view, moveTo, velocity, listener);
+    }
+
+    /**
+     * Ends a reveal animation that changes the state of the item.
+     */
+    private void onRevealAnimationEnd(int position, boolean toRight, boolean wasSwiped) {
+        if (!wasSwiped) {
+            states.setSwiped(position, true);
+            states.setSwipedToRight(position, toRight);
+            listView.onSwiped(position, toRight);
+        } else {
+            states.setSwiped(position, false);
+            listView.onUnswiped(position, !toRight);
+        }
     }
 
     /**
@@ -619,13 +1058,16 @@ class SwipeListViewTouchListener implements View.OnTouchListener {
      *            left
      * @param position
      *            Position of list
+     * @param velocity
+     *            release velocity in pixels per second, 0 if not released by a
+     *            gesture
      */
-    private void animateDismiss(final View view, final boolean swap, final boolean swapRight,
-            final int position) {
+    private void animateDismiss(View view, boolean swap, boolean swapRight, int position,
+            float velocity) {
         int moveTo = 0;
-        if (swiped.get(position)) {
+        if (states.isSwiped(position)) {
             if (!swap) {
-                moveTo = getSwipedOffset(swipedToRight.get(position));
+                moveTo = getSwipedOffset(states.isSwipedToRight(position));
             }
         } else {
             if (swap) {
@@ -639,15 +1081,13 @@ class SwipeListViewTouchListener implements View.OnTouchListener {
             alpha = 0;
         }
 
-        animate(view, moveTo, alpha, opts.animationTime, new Runnable() {
-            @Override
-            public void run() {
-                if (swap) {
-                    unswipeAllItems();
-                    performDismiss(view, position, true);
-                }
-            }
-        });
+        SwipeAnimationListener listener = null;
+        if (swap) {
+            listener = obtainAnimationListener(ANIMATION_DISMISS, view, position, swapRight);
+            // held from now on, so that its position follows the adapter changes
+            addPendingDismiss(position, view);
+        }
+        animate(view, moveTo, alpha, velocity, listener);
     }
 
     /**
@@ -658,11 +1098,81 @@ class SwipeListViewTouchListener implements View.OnTouchListener {
      * @param position
      *            list position
      */
-    private void animateChoice(final View view, final int position) {
-        animate(view, 0, opts.animationTime, new Runnable() {
-            @Override
-            public void run() {}
-        });
+    private void animateChoice(View view, int position) {
+        animate(view, 0, 0, null);
+    }
+
+    /**
+     * Returns a recycled end listener for a swipe animation, or a new one if the
+     * pool is empty. The listener goes back to the pool when the animation ends.
+     */
+    private SwipeAnimationListener obtainAnimationListener(int type, View view, int position,
+            boolean toRight) {
+        SwipeAnimationListener listener;
+        if (pooledAnimationListenerCount > 0) {
+            listener = animationListenerPool[--pooledAnimationListenerCount];
+            animationListenerPool[pooledAnimationListenerCount] = null;
+        } else {
+            listener = new SwipeAnimationListener();
+        }
+        listener.type = type;
+        listener.view = view;
+        listener.position = position;
+        listener.toRight = toRight;
+        listener.wasSwiped = false;
+        listener.running = true;
+        return listener;
+    }
+
+    /**
+     * Records the end listener of the animation about to start on the specified
+     * view. A listener still running on the view belongs to an animation that the
+     * new one replaces, and would not be notified reliably: the framework sends the
+     * end of a replaced animation to the current listener of the view, which
+     * ignores it. It is ended right away instead, as a cancel would.
+     * 
+     * @param v
+     *            the view about to be animated
+     * @param listener
+     *            the end listener of the new animation, or {@code null}
+     */
+    private void replaceAnimationListener(View v, SwipeAnimationListener listener) {
+        SwipeAnimationListener previous = (SwipeAnimationListener) v
+                .getTag(R.id.swipelistview_animation_listener);
+        v.setTag(R.id.swipelistview_animation_listener, listener);
+        if (previous != null && previous != listener && previous.running) {
+            previous.end();
+        }
+    }
+
+    /**
+     * Ends the swipe animation running on the specified view for another item than
+     * the specified one, as if it was complete, and stops the view where it is.
+     * 
+     * @param v
+     *            a front view or a row of the list
+     * @param position
+     *            position in list of the item now displayed by the view
+     */
+    @TargetApi(Build.VERSION_CODES.HONEYCOMB_MR1)
+    private void endAnimation(View v, int position) {
+        SwipeAnimationListener listener = (SwipeAnimationListener) v
+                .getTag(R.id.swipelistview_animation_listener);
+        if (listener != null && listener.running && listener.position != position) {
+            listener.end();
+            v.animate().cancel();
+        }
+    }
+
+    private void releaseAnimationListener(SwipeAnimationListener listener) {
+        if (listener.view.getTag(R.id.swipelistview_animation_listener) == listener) {
+            listener.view.setTag(R.id.swipelistview_animation_listener, null);
+        }
+        listener.view = null;
+        listener.animator = null;
+        if (pooledAnimationListenerCount < animationListenerPool.length) {
+            animationListenerPool[pooledAnimationListenerCount++] = listener;
+        }
     }
 
     /**
@@ -698,12 +1208,10 @@ class SwipeListViewTouchListener implements View.OnTouchListener {
         boolean yMoved = yDiff > pageSlop;
 
         if (xMoved || yMoved) {
-            if (xDiff > yDiff) {
-                currentMotion.scrollState = STATE_SCROLLING_X;
-                Log.d(LOG_TAG, "update direction to X (xDiff=" + xDiff + ", yDiff=" + yDiff + ")");
-            } else {
-                currentMotion.scrollState = STATE_SCROLLING_Y;
-                Log.d(LOG_TAG, "update direction to Y (xDiff=" + xDiff + ", yDiff=" + yDiff + ")");
+            currentMotion.scrollState = xDiff > yDiff ? STATE_SCROLLING_X : STATE_SCROLLING_Y;
+            if (DebugLog.isLoggable(Log.DEBUG)) {
+                DebugLog.d(LOG_TAG, "update direction to %s (xDiff=%s, yDiff=%s)",
+                        xDiff > yDiff ? "X" : "Y", xDiff, yDiff);
             }
             currentMotion.lastX = x;
             currentMotion.lastY = y;
@@ -721,44 +1229,81 @@ class SwipeListViewTouchListener implements View.OnTouchListener {
      *         {@code false} otherwise.
      */
     private boolean initMovingItem(MotionEvent ev) {
-        View item;
         int x = (int) ev.getX();
         int y = (int) ev.getY();
         // find the item located at (x,y)
-        for (int i = 0; i < listView.getChildCount(); i++) {
-            item = listView.getChildAt(i);
-            item.getHitRect(rect);
-            if (!rect.contains(x, y)) {
-                continue; // not this one, keep searching
-            }
-            int touchedItemPosition = listView.getPositionForView(item);
-            if (touchedItemPosition < listView.getHeaderViewsCount()) {
-                Log.w(LOG_TAG, "Item non initialized for pull because it's a header");
-                return false;
+        int index = findChildIndexAt(y);
+        View item = index >= 0 ? listView.getChildAt(index) : null;
+        if (item == null || x < item.getLeft() || x >= item.getRight()) {
+            movingItem.position = AdapterView.INVALID_POSITION;
+            DebugLog.d(LOG_TAG, "No item to initialize for pull (coordinates targeting Krypton)");
+            return false;
+        }
+        int touchedItemPosition = listView.getFirstVisiblePosition() + index;
+        if (touchedItemPosition < listView.getHeaderViewsCount()) {
+            DebugLog.d(LOG_TAG, "Item non initialized for pull because it's a header");
+            return false;
+        }
+        // don't allow pulling if this is on the header or footer or
+        // IGNORE_ITEM_VIEW_TYPE or disabled item
+        ListAdapter adapter = listView.getAdapter();
+        if (adapter.isEnabled(touchedItemPosition)
+                && adapter.getItemViewType(touchedItemPosition) != AdapterView.ITEM_VIEW_TYPE_IGNORE) {
+            movingItem.view = item;
+            movingItem.position = touchedItemPosition;
+            RowHolder holder = getRowHolder(item);
+            movingItem.frontView = holder.frontView;
+            movingItem.backView = holder.backView;
+            if (DebugLog.isLoggable(Log.DEBUG)) {
+                DebugLog.d(LOG_TAG, "initMovingItem: initialized to position %s",
+                        touchedItemPosition);
             }
-            // don't allow pulling if this is on the header or footer or
-            // IGNORE_ITEM_VIEW_TYPE or disabled item
-            ListAdapter adapter = listView.getAdapter();
-            if (adapter.isEnabled(touchedItemPosition)
-                    && adapter.getItemViewType(touchedItemPosition) != AdapterView.ITEM_VIEW_TYPE_IGNORE) {
-                movingItem.view = item;
-                movingItem.position = touchedItemPosition;
-                movingItem.frontView = item.findViewById(opts.frontViewId);
-
-                if (opts.backViewId > 0) {
-                    movingItem.backView = item.findViewById(opts.backViewId);
-                }
-                Log.d(LOG_TAG, "initMovingItem: initialized to position " + touchedItemPosition);
-                return true;
+            return true;
+        } else {
+            movingItem.position = AdapterView.INVALID_POSITION;
+            DebugLog.d(LOG_TAG, "Item non initialized for pull because it's disabled/ignored");
+            return false;
+        }
+    }
+
+    /**
+     * Finds the child of the list displayed at the specified ordinate. The children
+     * of a list are laid out from top to bottom, so a binary search over their
+     * bounds is enough.
+     * <p>
+     * The bounds include the vertical translation of the children: while rows
+     * collapse with {@link SwipeOptions#DISMISS_COLLAPSE_TRANSLATE}, the rows below
+     * them are shifted upwards and overlap them. The children stay in the same
+     * order, and the last one starting above {@code y} is the one drawn on top.
+     * </p>
+     * 
+     * @param y
+     *            The ordinate to look for, in the list's coordinates.
+     * @return the index of the child displayed at {@code y}, or -1 if there is
+     *         none.
+     */
+    private int findChildIndexAt(int y) {
+        int low = 0;
+        int high = listView.getChildCount() - 1;
+        int index = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            View child = listView.getChildAt(mid);
+            if (y < child.getTop() + getTranslationY(child)) {
+                high = mid - 1;
             } else {
-                movingItem.position = AdapterView.INVALID_POSITION;
-                Log.w(LOG_TAG, "Item non initialized for pull because it's disabled/ignored");
-                return false;
+                index = mid;
+                low = mid + 1;
             }
         }
-        movingItem.position = AdapterView.INVALID_POSITION;
-        Log.w(LOG_TAG, "No item to initialize for pull (coordinates targeting Krypton)");
-        return false;
+        if (index >= 0) {
+            View child = listView.getChildAt(index);
+            if (y >= child.getBottom() + getTranslationY(child)) {
+                // between two children, or below the last one
+                return -1;
+            }
+        }
+        return index;
     }
 
     private void initCurrentMotion(MotionEvent motionEvent) {
@@ -767,11 +1312,11 @@ class SwipeListViewTouchListener implements View.OnTouchListener {
         currentMotion.dragOriginX = motionEvent.getX();
         boolean itemLoaded = initMovingItem(motionEvent);
         if (itemLoaded) {
-            Log.d(LOG_TAG, "initCurrentMotion (item loaded)");
+            DebugLog.d(LOG_TAG, "initCurrentMotion (item loaded)");
             currentMotion.tracker = VelocityTracker.obtain();
             currentMotion.tracker.addMovement(motionEvent);
         } else {
-            Log.d(LOG_TAG, "initCurrentMotion (item not loaded)");
+            DebugLog.d(LOG_TAG, "initCurrentMotion (item not loaded)");
         }
     }
 
@@ -779,7 +1324,7 @@ class SwipeListViewTouchListener implements View.OnTouchListener {
         if (!currentMotion.isDragging()) {
             currentAction = SwipeOptions.ACTION_NONE;
         }
-        if (swiped.get(movingItem.position)) {
+        if (states.isSwiped(movingItem.position)) {
             currentAction = SwipeOptions.ACTION_REVEAL;
         } else {
             if (currentMotion.toRight) {
@@ -788,7 +1333,9 @@ class SwipeListViewTouchListener implements View.OnTouchListener {
                 currentAction = currentActionLeft;
             }
         }
-        Log.d(LOG_TAG, "currentAction updated to " + currentAction);
+        if (DebugLog.isLoggable(Log.DEBUG)) {
+            DebugLog.d(LOG_TAG, "currentAction updated to %s", currentAction);
+        }
         // update back view visibility depending on the new action
         movingItem.backView.setVisibility(currentAction == SwipeOptions.ACTION_CHOICE ? View.GONE
                 : View.VISIBLE);
@@ -802,7 +1349,7 @@ class SwipeListViewTouchListener implements View.OnTouchListener {
         if (isSwipeEnabled()) {
             switch (action) {
             case MotionEvent.ACTION_DOWN:
-                Log.d(LOG_TAG, "Intercept DOWN");
+                DebugLog.d(LOG_TAG, "Intercept DOWN");
                 initCurrentMotion(ev);
                 //$FALL-THROUGH$
             case MotionEvent.ACTION_UP:
@@ -811,8 +1358,11 @@ class SwipeListViewTouchListener implements View.OnTouchListener {
                 return false;
             case MotionEvent.ACTION_MOVE:
                 updateScrollDirection(x, y);
-                Log.d(LOG_TAG, "Intercept MOVE " + (currentMotion.scrollState == STATE_SCROLLING_X)
-                        + " (state=" + currentMotion.scrollState + ")");
+                if (DebugLog.isLoggable(Log.VERBOSE)) {
+                    DebugLog.v(LOG_TAG, "Intercept MOVE %s (state=%s)",
+                            currentMotion.scrollState == STATE_SCROLLING_X,
+                            currentMotion.scrollState);
+                }
                 return currentMotion.scrollState == STATE_SCROLLING_X;
             default:
                 break;
@@ -823,7 +1373,7 @@ class SwipeListViewTouchListener implements View.OnTouchListener {
 
     private void cancelMotionAndReset() {
         if (currentMotion.isDragging()) {
-            animateMovingItem(false, false);
+            animateMovingItem(false, false, 0);
         }
         currentMotion.reset();
         movingItem.reset();
@@ -837,7 +1387,7 @@ class SwipeListViewTouchListener implements View.OnTouchListener {
     public boolean onTouch(View view, MotionEvent ev) {
         if (!isSwipeEnabled()) {
             cancelMotionAndReset();
-            Log.w(LOG_TAG, "onTouch returns false (swipe disabled)");
+            DebugLog.v(LOG_TAG, "onTouch returns false (swipe disabled)");
             return false;
         }
 
@@ -848,12 +1398,12 @@ class SwipeListViewTouchListener implements View.OnTouchListener {
         switch (MotionEventCompat.getActionMasked(ev)) {
         case MotionEvent.ACTION_DOWN:
             initCurrentMotion(ev);
-            Log.d(LOG_TAG, "onTouch DOWN returns true");
+            DebugLog.d(LOG_TAG, "onTouch DOWN returns true");
             return true;
 
         case MotionEvent.ACTION_MOVE: {
             if (movingItem.position == AdapterView.INVALID_POSITION) {
-                Log.v(LOG_TAG, "onTouch MOVE ignored because motion not initialized");
+                DebugLog.v(LOG_TAG, "onTouch MOVE ignored because motion not initialized");
                 // we were not following this event
                 return false;
             }
@@ -861,14 +1411,18 @@ class SwipeListViewTouchListener implements View.OnTouchListener {
 
             // distance traveled by the pointer
             float deltaX = ev.getX() - currentMotion.dragOriginX;
-            Log.v(LOG_TAG, "DeltaX=" + deltaX);
+            if (DebugLog.isLoggable(Log.VERBOSE)) {
+                DebugLog.v(LOG_TAG, "DeltaX=%s", deltaX);
+            }
 
             // motion direction (if deltaX=0, does not matter)
             currentMotion.toRight = deltaX > 0;
 
             if (deltaX != 0 && !isAllowedDirection(currentMotion.toRight, movingItem.position)) {
-                Log.w(LOG_TAG, "Trying to pull item " + movingItem.position + " the wrong way "
-                        + (currentMotion.toRight ? "(right)" : "(left)"));
+                if (DebugLog.isLoggable(Log.VERBOSE)) {
+                    DebugLog.v(LOG_TAG, "Trying to pull item %s the wrong way %s",
+                            movingItem.position, currentMotion.toRight ? "(right)" : "(left)");
+                }
                 // the finger doesn't drag the item (blocked) so we reset origin
                 currentMotion.dragOriginX = ev.getX();
                 deltaX = 0;
@@ -890,12 +1444,14 @@ class SwipeListViewTouchListener implements View.OnTouchListener {
                     if (!opts.multipleSelectEnabled) {
                         unswipeAllItems();
                     }
-                    Log.d(LOG_TAG, "Start pulling item " + movingItem.position + " towards "
-                            + (currentMotion.toRight ? "right" : "left"));
+                    if (DebugLog.isLoggable(Log.DEBUG)) {
+                        DebugLog.d(LOG_TAG, "Start pulling item %s towards %s",
+                                movingItem.position, currentMotion.toRight ? "right" : "left");
+                    }
                     // TODO shouldn't be here
                     updateCurrentAction();
                 } else {
-                    Log.v(LOG_TAG, "gesture not sufficient to start a drag");
+                    DebugLog.v(LOG_TAG, "gesture not sufficient to start a drag");
                 }
             }
 
@@ -905,17 +1461,17 @@ class SwipeListViewTouchListener implements View.OnTouchListener {
                 moveMovingItemToPosition(targetX);
                 return true;
             }
-            Log.v(LOG_TAG, "onTouch MOVE returns false");
+            DebugLog.v(LOG_TAG, "onTouch MOVE returns false");
             return false;
         }
 
         case MotionEvent.ACTION_UP: {
             if (movingItem.position == AdapterView.INVALID_POSITION) {
-                Log.v(LOG_TAG, "onTouch UP ignored because motion not initialized");
+                DebugLog.v(LOG_TAG, "onTouch UP ignored because motion not initialized");
                 return false;
             }
             if (!currentMotion.isDragging()) {
-                Log.v(LOG_TAG, "onTouch UP ignored because not dragging the item");
+                DebugLog.v(LOG_TAG, "onTouch UP ignored because not dragging the item");
                 return false;
             }
 
@@ -928,19 +1484,23 @@ class SwipeListViewTouchListener implements View.OnTouchListener {
             boolean toRight;
             if (validSwipe) {
                 toRight = deltaX > 0;
-                Log.i(LOG_TAG, "Swipe item " + movingItem.position + " to "
-                        + (toRight ? "right" : "left") + "!");
             } else if (validFling) {
                 // may be different from the one calculated with deltaX
                 // (if the item is pulled one way and flung towards the other side)
                 toRight = currentMotion.tracker.getXVelocity() > 0;
-                Log.i(LOG_TAG, "Fling item " + movingItem.position + " to "
-                        + (toRight ? "right" : "left") + "!");
             } else {
                 toRight = false; // doesn't matter
-                Log.i(LOG_TAG, "Release item " + movingItem.position);
             }
-            animateMovingItem(validFling || validSwipe, toRight);
+            if (DebugLog.isLoggable(Log.DEBUG)) {
+                if (validSwipe || validFling) {
+                    DebugLog.d(LOG_TAG, "%s item %s to %s!", validSwipe ? "Swipe" : "Fling",
+                            movingItem.position, toRight ? "right" : "left");
+                } else {
+                    DebugLog.d(LOG_TAG, "Release item %s", movingItem.position);
+                }
+            }
+            animateMovingItem(validFling || validSwipe, toRight,
+                    currentMotion.tracker.getXVelocity());
             // TODO check that 'if', what's that doing here?
             if (currentAction == SwipeOptions.ACTION_CHOICE) {
                 swapCheckedState(movingItem.position);
@@ -948,11 +1508,11 @@ class SwipeListViewTouchListener implements View.OnTouchListener {
 
             currentMotion.reset();
             movingItem.reset();
-            Log.v(LOG_TAG, "onTouch UP returns true");
+            DebugLog.v(LOG_TAG, "onTouch UP returns true");
             return true;
         }
         case MotionEvent.ACTION_CANCEL:
-            Log.w(LOG_TAG, "onTouch CANCEL returns false");
+            DebugLog.d(LOG_TAG, "onTouch CANCEL returns false");
             cancelMotionAndReset();
             return false;
         default:
@@ -967,7 +1527,8 @@ class SwipeListViewTouchListener implements View.OnTouchListener {
             return 0;
         }
         // base X position for the current state
-        float currentX = swiped.get(position) ? getSwipedOffset(swipedToRight.get(position)) : 0;
+        float currentX = states.isSwiped(position) ? getSwipedOffset(states
+                .isSwipedToRight(position)) : 0;
         // new X position to reach
         float targetX = currentX + deltaX;
 
@@ -997,23 +1558,23 @@ class SwipeListViewTouchListener implements View.OnTouchListener {
      */
     private boolean isAllowedDirection(boolean toRight, int position) {
         if (opts.swipeMode == SwipeOptions.SWIPE_MODE_NONE) {
-            Log.w(LOG_TAG, "Something's wrong: touch event handled while swipe is disabled");
+            DebugLog.w(LOG_TAG, "Something's wrong: touch event handled while swipe is disabled");
             return false;
         }
-        if (swiped.get(position)) {
-            boolean swipedRight = swipedToRight.get(position);
+        if (states.isSwiped(position)) {
+            boolean swipedRight = states.isSwipedToRight(position);
             if ((!swipedRight && !toRight) || (swipedRight && toRight)) {
                 // trying to close the element the wrong way
-                Log.v(LOG_TAG, "Drag blocked: trying to unswipe a "
-                        + (swipedRight ? "right" : "left") + "-swiped element to the "
-                        + (toRight ? "right" : "left"));
+                DebugLog.v(LOG_TAG,
+                        "Drag blocked: trying to unswipe a %s-swiped element to the %s",
+                        swipedRight ? "right" : "left", toRight ? "right" : "left");
                 return false;
             }
         } else if ((opts.swipeMode == SwipeOptions.SWIPE_MODE_LEFT && toRight)
                 || (opts.swipeMode == SwipeOptions.SWIPE_MODE_RIGHT && !toRight)) {
             // trying to open the element the wrong way
-            Log.v(LOG_TAG, "Drag blocked: trying to swipe the element to the "
-                    + (toRight ? "right" : "left"));
+            DebugLog.v(LOG_TAG, "Drag blocked: trying to swipe the element to the %s",
+                    toRight ? "right" : "left");
             return false;
         }
         return true;
@@ -1036,15 +1597,17 @@ class SwipeListViewTouchListener implements View.OnTouchListener {
      *            delta
      */
     private void moveMovingItemToPosition(float targetX) {
-        Log.v(LOG_TAG, "Moving item " + movingItem.position + " to x=" + targetX);
+        if (DebugLog.isLoggable(Log.VERBOSE)) {
+            DebugLog.v(LOG_TAG, "Moving item %s to x=%s", movingItem.position, targetX);
+        }
         if (currentAction == SwipeOptions.ACTION_DISMISS) {
             setTranslationX(movingItem.view, targetX);
             setAlpha(movingItem.view,
                     Math.max(0f, Math.min(1f, 1f - 2f * Math.abs(targetX) / viewWidth)));
         } else if (currentAction == SwipeOptions.ACTION_CHOICE) {
             float posX = getX(movingItem.frontView);
-            if (swiped.get(movingItem.position)) {
-                posX -= getSwipedOffset(swipedToRight.get(movingItem.position));
+            if (states.isSwiped(movingItem.position)) {
+                posX -= getSwipedOffset(states.isSwipedToRight(movingItem.position));
             }
             if ((currentMotion.toRight && targetX > 0 && posX < DISPLACE_CHOICE)
                     || (!currentMotion.toRight && targetX < 0 && posX > -DISPLACE_CHOICE)
@@ -1058,25 +1621,6 @@ class SwipeListViewTouchListener implements View.OnTouchListener {
         listView.onMove(movingItem.position, targetX);
     }
 
-    /**
-     * Class that saves pending dismiss data
-     */
-    private class PendingDismissData implements Comparable<PendingDismissData> {
-        private int position;
-        private View view;
-
-        public PendingDismissData(int position, View view) {
-            this.position = position;
-            this.view = view;
-        }
-
-        @Override
-        public int compareTo(PendingDismissData other) {
-            // Sort by descending position
-            return other.position - position;
-        }
-    }
-
     /**
      * Container for the currently moving item.
      */
@@ -1101,6 +1645,73 @@ class SwipeListViewTouchListener implements View.OnTouchListener {
         }
     }
 
+    /**
+     * Cached views of a row of the list, stored in the row's tags.
+     */
+    private static class RowHolder {
+        View frontView;
+        View backView;
+    }
+
+    /**
+     * End listener of a swipe animation changing the state of an item. Instances
+     * are recycled through {@link #obtainAnimationListener}: each one is released
+     * when its animation ends, including after a cancel, or when another animation
+     * replaces it on its view.
+     * <p>
+     * Only the end of the animator whose start was notified to the listener is
+     * handled: the framework notifies the listener currently set on the view, which
+     * may receive the end of an animation that it replaced.
+     * </p>
+     */
+    private class SwipeAnimationListener extends AnimatorListenerAdapter {
+        int type;
+        View view;
+        int position;
+        boolean toRight;
+        boolean wasSwiped;
+        /** Whether the end was not handled yet, as it may be notified twice. */
+        boolean running;
+        /** The animator of the animation, known once it started. */
+        Animator animator;
+        /** Interpolator of spring releases, created on first use and then reused. */
+        SpringInterpolator spring;
+
+        @Override
+        public void onAnimationStart(Animator animation) {
+            if (running && animator == null) {
+                animator = animation;
+            }
+        }
+
+        @Override
+        public void onAnimationEnd(Animator animation) {
+            if (running && animation == animator) {
+                end();
+            }
+        }
+
+        /**
+         * Handles the end of the animation, and releases this listener.
+         */
+        void end() {
+            running = false;
+            int type = this.type;
+            View view = this.view;
+            int position = this.position;
+            boolean toRight = this.toRight;
+            boolean wasSwiped = this.wasSwiped;
+            // released first, so that the animations started below can reuse it
+            releaseAnimationListener(this);
+            if (type == ANIMATION_REVEAL) {
+                onRevealAnimationEnd(position, toRight, wasSwiped);
+            } else {
+                unswipeAllItems();
+                collapseDismissedRow(view);
+            }
+        }
+    }
+
     /**
      * Container for the current gesture info.
      */
@@ -1133,12 +1744,12 @@ class SwipeListViewTouchListener implements View.OnTouchListener {
 
             boolean velocityToRight = tracker.getXVelocity() > 0;
 
-            if (swiped.get(movingItem.position)) {
-                if (swipedToRight.get(movingItem.position) && velocityToRight) {
+            if (states.isSwiped(movingItem.position)) {
+                if (states.isSwipedToRight(movingItem.position) && velocityToRight) {
                     // swiped to right, flinging right
                     return false;
                 }
-                if (!swipedToRight.get(movingItem.position) && !velocityToRight) {
+                if (!states.isSwipedToRight(movingItem.position) && !velocityToRight) {
                     // swiped to left, flinging left
                     return false;
                 }
@@ -1174,6 +1785,11 @@ class SwipeListViewTouchListener implements View.OnTouchListener {
         return v.getX();
     }
 
+    @TargetApi(Build.VERSION_CODES.HONEYCOMB)
+    private static float getTranslationY(View v) {
+        return v.getTranslationY();
+    }
+
     @TargetApi(Build.VERSION_CODES.HONEYCOMB)
     private static void setTranslationX(View v, float translationX) {
         v.setTranslationX(translationX);
@@ -1184,28 +1800,57 @@ class SwipeListViewTouchListener implements View.OnTouchListener {
         v.setAlpha(alpha);
     }
 
+    /*
+     * The end listeners come from a pool, along with the springs of the releases,
+     * so that they are not allocated for each animation. The framework still
+     * allocates an animator and its property holders for each animation started
+     * through the view's ViewPropertyAnimator.
+     */
+
     @TargetApi(Build.VERSION_CODES.HONEYCOMB_MR1)
-    private static void animate(View v, float translationX, long animationTime,
-            final Runnable animationEndCallback) {
-        v.animate().translationX(translationX).setDuration(animationTime)
-                .setListener(new AnimatorListenerAdapter() {
-                    @Override
-                    public void onAnimationEnd(Animator animation) {
-                        animationEndCallback.run();
-                    }
-                });
+    private void animate(View v, float translationX, float velocity,
+            SwipeAnimationListener listener) {
+        replaceAnimationListener(v, listener);
+        ViewPropertyAnimator animator = v.animate().translationX(translationX);
+        setTiming(animator, v.getTranslationX() - translationX, velocity, listener);
+        animator.setListener(listener);
     }
 
     @TargetApi(Build.VERSION_CODES.HONEYCOMB_MR1)
-    private static void animate(View v, float translationX, float alpha, long animationTime,
-            final Runnable animationEndCallback) {
-        v.animate().translationX(translationX).alpha(alpha).setDuration(animationTime)
-                .setListener(new AnimatorListenerAdapter() {
-                    @Override
-                    public void onAnimationEnd(Animator animation) {
-                        animationEndCallback.run();
-                    }
-                });
+    private void animate(View v, float translationX, float alpha, float velocity,
+            SwipeAnimationListener listener) {
+        replaceAnimationListener(v, listener);
+        ViewPropertyAnimator animator = v.animate().translationX(translationX).alpha(alpha);
+        setTiming(animator, v.getTranslationX() - translationX, velocity, listener);
+        animator.setListener(listener);
+    }
+
+    /**
+     * Sets the duration and interpolator of an animation moving a view by the
+     * specified displacement. In {@link SwipeOptions#RELEASE_MODE_SPRING}, a view
+     * released to change state keeps its velocity and settles with a critically
+     * damped spring: its settle time depends on the distance and on the velocity,
+     * and the animation time only sets the stiffness of the spring. The spring is
+     * held by the end listener of the animation, so that it is not reused before
+     * the end.
+     */
+    @TargetApi(Build.VERSION_CODES.HONEYCOMB_MR1)
+    private void setTiming(ViewPropertyAnimator animator, float displacement, float velocity,
+            SwipeAnimationListener listener) {
+        if (opts.releaseMode == SwipeOptions.RELEASE_MODE_SPRING && velocity != 0
+                && displacement != 0 && opts.animationTime > 0 && listener != null) {
+            // a spring released from rest settles in about the animation time
+            float minFrequency = SPRING_SETTLE_TIME_CONSTANTS * 1000f / opts.animationTime;
+            if (listener.spring == null) {
+                listener.spring = new SpringInterpolator();
+            }
+            SpringInterpolator spring = listener.spring.setForRelease(displacement, velocity,
+                    minFrequency, minFrequency * SPRING_MAX_STIFFNESS_RATIO);
+            animator.setDuration(spring.getDuration()).setInterpolator(spring);
+        } else {
+            // the interpolator of the previous animation is retained
+            animator.setDuration(opts.animationTime).setInterpolator(DEFAULT_INTERPOLATOR);
+        }
     }
 
 }
\ No newline at end of file
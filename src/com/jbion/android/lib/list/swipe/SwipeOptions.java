@@ -63,6 +63,47 @@ class SwipeOptions {
      */
     public final static int OFFSET_TYPE_TRAVELED = 1;
 
+    /**
+     * Chooses the storage of the swipe/check states depending on the number of
+     * items holding a state.
+     */
+    public final static int STATE_STORAGE_AUTO = 0;
+
+    /**
+     * Stores the swipe/check states as bits, for all the items of the list.
+     */
+    public final static int STATE_STORAGE_DENSE = 1;
+
+    /**
+     * Stores the swipe/check states only for the items holding a state. Best for
+     * huge lists where few items are swiped or checked.
+     */
+    public final static int STATE_STORAGE_SPARSE = 2;
+
+    /**
+     * Collapses the dismissed rows by shrinking their height, laying out the list on
+     * every frame.
+     */
+    public final static int DISMISS_COLLAPSE_LAYOUT = 0;
+
+    /**
+     * Collapses the dismissed rows by translating the rows below them, without any
+     * layout until the dismissed items are removed.
+     */
+    public final static int DISMISS_COLLAPSE_TRANSLATE = 1;
+
+    /**
+     * Animates the released items to their final position over the configured
+     * animation time, whatever the velocity of the gesture.
+     */
+    public final static int RELEASE_MODE_DURATION = 0;
+
+    /**
+     * Continues the gesture of the items released to change state with a spring
+     * starting at the release velocity, so that fast flings settle sooner.
+     */
+    public final static int RELEASE_MODE_SPRING = 1;
+
     /**
      * Default ids for front view
      */
@@ -89,6 +130,11 @@ class SwipeOptions {
     boolean openOnLongClick = true;
     boolean multipleSelectEnabled = true;
     boolean closeAllItemsOnScroll = true;
+    boolean trackStableIds = false;
+    int stateStorage = STATE_STORAGE_AUTO;
+    int dismissCollapseMode = DISMISS_COLLAPSE_LAYOUT;
+    long undoWindow = 0;
+    int releaseMode = RELEASE_MODE_DURATION;
 
     long animationTime = 0;
     int drawableChecked = 0;
@@ -118,6 +164,12 @@ class SwipeOptions {
                 true);
         closeAllItemsOnScroll = styled.getBoolean(R.styleable.SwipeListView_closeAllItemsOnScroll,
                 true);
+        trackStableIds = styled.getBoolean(R.styleable.SwipeListView_trackStableIds, false);
+        stateStorage = styled.getInt(R.styleable.SwipeListView_stateStorage, STATE_STORAGE_AUTO);
+        dismissCollapseMode = styled.getInt(R.styleable.SwipeListView_dismissCollapseMode,
+                DISMISS_COLLAPSE_LAYOUT);
+        undoWindow = styled.getInteger(R.styleable.SwipeListView_undoWindow, 0);
+        releaseMode = styled.getInt(R.styleable.SwipeListView_releaseMode, RELEASE_MODE_DURATION);
 
         animationTime = styled.getInteger(R.styleable.SwipeListView_animationTime,
                 defaultAnimationTime);
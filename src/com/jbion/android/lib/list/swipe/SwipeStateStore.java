@@ -0,0 +1,197 @@
+package com.jbion.android.lib.list.swipe;
+
+/**
+ * Holds the swipe and check state of every item of a {@link SwipeListView}.
+ * <p>
+ * Positions are list positions (headers included), as used by the touch listener.
+ * Reading a position that was never written returns {@code false}.
+ * </p>
+ */
+interface SwipeStateStore {
+
+    /**
+     * Clears all the states and prepares the store for the specified number of
+     * items.
+     *
+     * @param count
+     *            The number of positions the store should hold.
+     */
+    void reset(int count);
+
+    /**
+     * Updates the store after a change in the adapter's data. Stores that cannot
+     * follow the items through the change simply clear their states.
+     *
+     * @param count
+     *            The number of positions the store should hold.
+     */
+    void onDataSetChanged(int count);
+
+    /**
+     * Inserts {@code count} positions holding the default states at the specified
+     * position. The states of the following positions are shifted accordingly.
+     *
+     * @param position
+     *            The position of the first inserted item.
+     * @param count
+     *            The number of inserted items.
+     */
+    void insertRange(int position, int count);
+
+    /**
+     * Removes {@code count} positions starting at the specified position, along
+     * with their states. The states of the following positions are shifted
+     * accordingly.
+     *
+     * @param position
+     *            The position of the first removed item.
+     * @param count
+     *            The number of removed items.
+     */
+    void removeRange(int position, int count);
+
+    /**
+     * Moves the states of the item at {@code from} to {@code to}. The states of the
+     * items in between are shifted by one position towards {@code from}.
+     * 
+     * @param from
+     *            The former position of the moved item.
+     * @param to
+     *            The new position of the moved item.
+     */
+    void moveItem(int from, int to);
+
+    /**
+     * Updates the store after a change of the content of {@code count} items
+     * starting at the specified position, which did not move. Their states are
+     * kept, unless the store follows the items' IDs and the ID at a position
+     * changed: the item was replaced, and its states are cleared.
+     * 
+     * @param position
+     *            The position of the first changed item.
+     * @param count
+     *            The number of changed items.
+     */
+    void changeRange(int position, int count);
+
+    /**
+     * Returns the number of positions this store holds.
+     *
+     * @return the number of positions this store holds.
+     */
+    int size();
+
+    /**
+     * Returns whether the item at the specified position is swiped.
+     *
+     * @param position
+     *            The position of the item.
+     * @return {@code true} if the item is swiped.
+     */
+    boolean isSwiped(int position);
+
+    /**
+     * Returns the direction of the swipe of the item at the specified position.
+     * Items that are not swiped are never swiped towards the right.
+     *
+     * @param position
+     *            The position of the item.
+     * @return {@code true} if the item was swiped towards the right.
+     */
+    boolean isSwipedToRight(int position);
+
+    /**
+     * Returns whether the item at the specified position is checked.
+     *
+     * @param position
+     *            The position of the item.
+     * @return {@code true} if the item is checked.
+     */
+    boolean isChecked(int position);
+
+    /**
+     * Sets the swiped state of the item at the specified position.
+     *
+     * @param position
+     *            The position of the item.
+     * @param swiped
+     *            The new swiped state.
+     */
+    void setSwiped(int position, boolean swiped);
+
+    /**
+     * Sets the swipe direction of the item at the specified position. The direction
+     * is ignored if the item is not swiped, and cleared when it is unswiped.
+     *
+     * @param position
+     *            The position of the item.
+     * @param toRight
+     *            {@code true} if the item is swiped towards the right.
+     */
+    void setSwipedToRight(int position, boolean toRight);
+
+    /**
+     * Sets the checked state of the item at the specified position.
+     *
+     * @param position
+     *            The position of the item.
+     * @param checked
+     *            The new checked state.
+     */
+    void setChecked(int position, boolean checked);
+
+    /**
+     * Returns the number of swiped items. This is a constant time operation.
+     *
+     * @return the number of swiped items.
+     */
+    int getCountSwiped();
+
+    /**
+     * Returns the number of items swiped towards the specified direction. This is a
+     * constant time operation.
+     *
+     * @param toRight
+     *            {@code true} to count the items swiped to the right, {@code false}
+     *            to count the items swiped to the left.
+     * @return the number of items swiped towards the specified direction.
+     */
+    int getCountSwiped(boolean toRight);
+
+    /**
+     * Returns the number of checked items. This is a constant time operation.
+     *
+     * @return the number of checked items.
+     */
+    int getCountChecked();
+
+    /**
+     * Marks all the items as not swiped.
+     */
+    void unswipeAll();
+
+    /**
+     * Marks all the items as not checked.
+     */
+    void uncheckAll();
+
+    /**
+     * Returns the first swiped position that is greater than or equal to
+     * {@code fromPosition}.
+     *
+     * @param fromPosition
+     *            The position to start searching from (inclusive).
+     * @return the next swiped position, or -1 if there is none.
+     */
+    int nextSwiped(int fromPosition);
+
+    /**
+     * Returns the first checked position that is greater than or equal to
+     * {@code fromPosition}.
+     *
+     * @param fromPosition
+     *            The position to start searching from (inclusive).
+     * @return the next checked position, or -1 if there is none.
+     */
+    int nextChecked(int fromPosition);
+}
@@ -0,0 +1,323 @@
+package com.jbion.android.lib.util;
+
+import android.util.Log;
+
+import com.jbion.android.pulltorefresh.BuildConfig;
+
+/**
+ * Logging facade for the library.
+ * <p>
+ * Info messages, warnings and errors are always written. Verbose and debug
+ * messages, which trace the touch and scroll events, are only written when debug
+ * logging is enabled, which is the case in debug builds, or after a call to
+ * {@link #setEnabled(boolean)}.
+ * </p>
+ * <p>
+ * Skipped messages are never formatted, and the overloads take up to three
+ * arguments without an argument array, so that a skipped message only costs a
+ * method call, and the boxing of its primitive arguments. On the paths run for
+ * each event, the messages with primitive arguments are guarded so that they
+ * don't allocate at all:
+ * 
+ * <pre>
+ * if (DebugLog.isLoggable(Log.VERBOSE)) {
+ *     DebugLog.v(LOG_TAG, &quot;Moving item %s to x=%s&quot;, position, targetX);
+ * }
+ * </pre>
+ * 
+ * Messages below the level set with {@link #setLevel(int)} are skipped as well, and
+ * both written and skipped messages are counted to measure the cost of the logging.
+ * </p>
+ */
+public final class DebugLog {
+
+    private static boolean enabled = BuildConfig.DEBUG;
+    private static int level = Log.VERBOSE;
+
+    private static long writtenCount = 0;
+    private static long skippedCount = 0;
+
+    private DebugLog() {
+        // static methods only
+    }
+
+    /**
+     * Enables or disables the verbose and debug messages. They are enabled by
+     * default in debug builds only. Info messages, warnings and errors are not
+     * affected.
+     * 
+     * @param enable
+     *            {@code true} to write verbose and debug messages.
+     */
+    public static void setEnabled(boolean enable) {
+        enabled = enable;
+    }
+
+    /**
+     * Returns whether the verbose and debug messages are enabled.
+     * 
+     * @return {@code true} if verbose and debug messages may be written.
+     * @see #setEnabled(boolean)
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Sets the minimum priority of the messages to write. Messages with a lower
+     * priority are skipped without being formatted.
+     * 
+     * @param priority
+     *            One of {@link Log#VERBOSE}, {@link Log#DEBUG}, {@link Log#INFO},
+     *            {@link Log#WARN} or {@link Log#ERROR}.
+     */
+    public static void setLevel(int priority) {
+        level = priority;
+    }
+
+    /**
+     * Returns whether messages of the specified priority are written.
+     * 
+     * @param priority
+     *            The priority to test.
+     * @return {@code true} if such messages are written.
+     */
+    public static boolean isLoggable(int priority) {
+        return priority >= level && (enabled || priority >= Log.INFO);
+    }
+
+    /**
+     * Returns the number of messages written since the last
+     * {@link #resetCounts()}.
+     * 
+     * @return the number of written messages.
+     */
+    public static long getWrittenCount() {
+        return writtenCount;
+    }
+
+    /**
+     * Returns the number of messages skipped, and thus not formatted, since the
+     * last {@link #resetCounts()}.
+     * 
+     * @return the number of skipped messages.
+     */
+    public static long getSkippedCount() {
+        return skippedCount;
+    }
+
+    /**
+     * Resets the written and skipped message counts.
+     */
+    public static void resetCounts() {
+        writtenCount = 0;
+        skippedCount = 0;
+    }
+
+    /**
+     * Counts the message, and returns whether it must be written.
+     */
+    private static boolean accept(int priority) {
+        if (!isLoggable(priority)) {
+            skippedCount++;
+            return false;
+        }
+        writtenCount++;
+        return true;
+    }
+
+    /**
+     * Writes a verbose message if debug logging is enabled.
+     */
+    public static void v(String tag, String msg) {
+        if (accept(Log.VERBOSE)) {
+            Log.println(Log.VERBOSE, tag, msg);
+        }
+    }
+
+    /**
+     * Writes a verbose message if debug logging is enabled, formatted with
+     * {@link String#format(String, Object...)} only if it is actually written.
+     */
+    public static void v(String tag, String format, Object arg) {
+        if (accept(Log.VERBOSE)) {
+            Log.println(Log.VERBOSE, tag, String.format(format, arg));
+        }
+    }
+
+    /**
+     * Writes a verbose message if debug logging is enabled, formatted with
+     * {@link String#format(String, Object...)} only if it is actually written.
+     */
+    public static void v(String tag, String format, Object arg1, Object arg2) {
+        if (accept(Log.VERBOSE)) {
+            Log.println(Log.VERBOSE, tag, String.format(format, arg1, arg2));
+        }
+    }
+
+    /**
+     * Writes a verbose message if debug logging is enabled, formatted with
+     * {@link String#format(String, Object...)} only if it is actually written.
+     */
+    public static void v(String tag, String format, Object arg1, Object arg2, Object arg3) {
+        if (accept(Log.VERBOSE)) {
+            Log.println(Log.VERBOSE, tag, String.format(format, arg1, arg2, arg3));
+        }
+    }
+
+    /**
+     * Writes a debug message if debug logging is enabled.
+     */
+    public static void d(String tag, String msg) {
+        if (accept(Log.DEBUG)) {
+            Log.println(Log.DEBUG, tag, msg);
+        }
+    }
+
+    /**
+     * Writes a debug message if debug logging is enabled, formatted with
+     * {@link String#format(String, Object...)} only if it is actually written.
+     */
+    public static void d(String tag, String format, Object arg) {
+        if (accept(Log.DEBUG)) {
+            Log.println(Log.DEBUG, tag, String.format(format, arg));
+        }
+    }
+
+    /**
+     * Writes a debug message if debug logging is enabled, formatted with
+     * {@link String#format(String, Object...)} only if it is actually written.
+     */
+    public static void d(String tag, String format, Object arg1, Object arg2) {
+        if (accept(Log.DEBUG)) {
+            Log.println(Log.DEBUG, tag, String.format(format, arg1, arg2));
+        }
+    }
+
+    /**
+     * Writes a debug message if debug logging is enabled, formatted with
+     * {@link String#format(String, Object...)} only if it is actually written.
+     */
+    public static void d(String tag, String format, Object arg1, Object arg2, Object arg3) {
+        if (accept(Log.DEBUG)) {
+            Log.println(Log.DEBUG, tag, String.format(format, arg1, arg2, arg3));
+        }
+    }
+
+    /**
+     * Writes an info message.
+     */
+    public static void i(String tag, String msg) {
+        if (accept(Log.INFO)) {
+            Log.println(Log.INFO, tag, msg);
+        }
+    }
+
+    /**
+     * Writes an info message, formatted with
+     * {@link String#format(String, Object...)} only if it is actually written.
+     */
+    public static void i(String tag, String format, Object arg) {
+        if (accept(Log.INFO)) {
+            Log.println(Log.INFO, tag, String.format(format, arg));
+        }
+    }
+
+    /**
+     * Writes an info message, formatted with
+     * {@link String#format(String, Object...)} only if it is actually written.
+     */
+    public static void i(String tag, String format, Object arg1, Object arg2) {
+        if (accept(Log.INFO)) {
+            Log.println(Log.INFO, tag, String.format(format, arg1, arg2));
+        }
+    }
+
+    /**
+     * Writes an info message, formatted with
+     * {@link String#format(String, Object...)} only if it is actually written.
+     */
+    public static void i(String tag, String format, Object arg1, Object arg2, Object arg3) {
+        if (accept(Log.INFO)) {
+            Log.println(Log.INFO, tag, String.format(format, arg1, arg2, arg3));
+        }
+    }
+
+    /**
+     * Writes a warning message.
+     */
+    public static void w(String tag, String msg) {
+        if (accept(Log.WARN)) {
+            Log.println(Log.WARN, tag, msg);
+        }
+    }
+
+    /**
+     * Writes a warning message, formatted with
+     * {@link String#format(String, Object...)} only if it is actually written.
+     */
+    public static void w(String tag, String format, Object arg) {
+        if (accept(Log.WARN)) {
+            Log.println(Log.WARN, tag, String.format(format, arg));
+        }
+    }
+
+    /**
+     * Writes a warning message, formatted with
+     * {@link String#format(String, Object...)} only if it is actually written.
+     */
+    public static void w(String tag, String format, Object arg1, Object arg2) {
+        if (accept(Log.WARN)) {
+            Log.println(Log.WARN, tag, String.format(format, arg1, arg2));
+        }
+    }
+
+    /**
+     * Writes a warning message, formatted with
+     * {@link String#format(String, Object...)} only if it is actually written.
+     */
+    public static void w(String tag, String format, Object arg1, Object arg2, Object arg3) {
+        if (accept(Log.WARN)) {
+            Log.println(Log.WARN, tag, String.format(format, arg1, arg2, arg3));
+        }
+    }
+
+    /**
+     * Writes an error message.
+     */
+    public static void e(String tag, String msg) {
+        if (accept(Log.ERROR)) {
+            Log.println(Log.ERROR, tag, msg);
+        }
+    }
+
+    /**
+     * Writes an error message, formatted with
+     * {@link String#format(String, Object...)} only if it is actually written.
+     */
+    public static void e(String tag, String format, Object arg) {
+        if (accept(Log.ERROR)) {
+            Log.println(Log.ERROR, tag, String.format(format, arg));
+        }
+    }
+
+    /**
+     * Writes an error message, formatted with
+     * {@link String#format(String, Object...)} only if it is actually written.
+     */
+    public static void e(String tag, String format, Object arg1, Object arg2) {
+        if (accept(Log.ERROR)) {
+            Log.println(Log.ERROR, tag, String.format(format, arg1, arg2));
+        }
+    }
+
+    /**
+     * Writes an error message, formatted with
+     * {@link String#format(String, Object...)} only if it is actually written.
+     */
+    public static void e(String tag, String format, Object arg1, Object arg2, Object arg3) {
+        if (accept(Log.ERROR)) {
+            Log.println(Log.ERROR, tag, String.format(format, arg1, arg2, arg3));
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.nineoldandroids.animation;
+
+import android.view.animation.AnimationUtils;
+
+/**
+ * Source of the current time for the animations of a thread.
+ * <p>
+ * The animations compare the times of the frames they are given to the time read
+ * from this clock when they are started or seeked, so the clock and the
+ * {@link FrameSource} of a thread must use the same time base.
+ * </p>
+ */
+public interface AnimationClock {
+
+    /**
+     * The default clock, reading
+     * {@link AnimationUtils#currentAnimationTimeMillis()}.
+     */
+    AnimationClock SYSTEM = new AnimationClock() {
+        @Override
+        public long currentTimeMillis() {
+            return AnimationUtils.currentAnimationTimeMillis();
+        }
+    };
+
+    /**
+     * Returns the current animation time.
+     * 
+     * @return the current time, in milliseconds.
+     */
+    long currentTimeMillis();
+}
@@ -2,145 +2,154 @@ package com.nineoldandroids.animation;
 
 import java.util.ArrayList;
 
-import android.os.Handler;
-import android.os.Message;
-import android.view.animation.AnimationUtils;
-
 /**
  * This custom, static handler handles the timing pulse that is shared by all
  * active animations. This approach ensures that the setting of animation values
  * will happen on the UI thread and that all animations will share the same times
  * for calculating their values, which makes synchronizing animations possible.
- * 
+ * <p>
+ * The pulse itself comes from a {@link FrameSource}, which calls
+ * {@link #doFrame(long)} whenever a frame was requested.
+ * </p>
  */
-@SuppressWarnings("unchecked")
-class AnimationHandler extends Handler {
+class AnimationHandler implements FrameSource.FrameCallback {
+
+    // The active animations of this thread
+    final AnimationQueue animations = new AnimationQueue();
+    // The animations to be started on the next animation frame
+    final AnimationQueue pendingAnimations = new AnimationQueue();
+    // The animations waiting for the end of their startDelay
+    final AnimationQueue delayedAnims = new AnimationQueue();
+    // Animations that finished during the current frame
+    private final ArrayList<ValueAnimator> endingAnims = new ArrayList<ValueAnimator>();
+
+    private FrameSource frameSource;
+    private AnimationClock clock = AnimationClock.SYSTEM;
+    private boolean framePending = false;
+
+    /**
+     * Returns whether the frame source of this handler needs a Looper. The default
+     * source is not created here, as it can't be created on a thread without
+     * Looper.
+     */
+    boolean requiresLooper() {
+        return frameSource == null || frameSource.requiresLooper();
+    }
+
+    AnimationClock getClock() {
+        return clock;
+    }
+
+    void setClock(AnimationClock clock) {
+        this.clock = clock != null ? clock : AnimationClock.SYSTEM;
+    }
+
     /**
-     * There are only two messages that we care about: ANIMATION_START and
-     * ANIMATION_FRAME. The START message is sent when an animation's start()
-     * method is called. It cannot start synchronously when start() is called
-     * because the call may be on the wrong thread, and it would also not be
-     * synchronized with other animations because it would not start on a common
-     * timing pulse. So each animation sends a START message to the handler,
-     * which causes the handler to place the animation on the active animations
-     * queue and start processing frames for that animation. The FRAME message is
-     * the one that is sent over and over while there are any active animations
-     * to process.
+     * Returns the frame source used by this handler, creating the default one if
+     * none was set.
+     */
+    FrameSource getFrameSource() {
+        if (frameSource == null) {
+            frameSource = FrameSource.createDefault();
+        }
+        return frameSource;
+    }
+
+    /**
+     * Changes the frame source used by this handler. A pending frame request is
+     * moved to the new source.
+     */
+    void setFrameSource(FrameSource source) {
+        if (frameSource != null && framePending) {
+            frameSource.removeFrameCallback(this);
+        }
+        frameSource = source;
+        if (framePending) {
+            getFrameSource().postFrameCallback(this);
+        }
+    }
+
+    /**
+     * Requests a frame from the frame source, unless one is already pending.
+     * Animations added to the pending list are started on this frame.
+     */
+    void scheduleFrame() {
+        if (!framePending) {
+            framePending = true;
+            getFrameSource().postFrameCallback(this);
+        }
+    }
+
+    /**
+     * Processes one frame: the animations that have requested to be started are
+     * placed on the active or delayed animations queue, then all active animations are
+     * updated with the specified frame time. Another frame is requested as long as
+     * there are active or delayed animations.
+     * 
+     * @param currentTime
+     *            The common time for all animations processed during this frame.
      */
     @Override
-    public void handleMessage(Message msg) {
-        boolean callAgain = true;
-        ArrayList<ValueAnimator> animations = ValueAnimator.sAnimations.get();
-        ArrayList<ValueAnimator> delayedAnims = ValueAnimator.sDelayedAnims.get();
-        switch (msg.what) {
-        // TODO: should we avoid sending frame message when starting if we
-        // were already running?
-        case ValueAnimator.ANIMATION_START:
-            ArrayList<ValueAnimator> pendingAnimations = ValueAnimator.sPendingAnimations.get();
-            if (animations.size() > 0 || delayedAnims.size() > 0) {
-                callAgain = false;
+    public void doFrame(long currentTime) {
+        framePending = false;
+        // Start the animations that have requested it. Starting an animation may
+        // cause more to be added to the pending queue (for example, if one
+        // animation starting triggers another starting), so the slots are re-read
+        // until the end of the queue.
+        for (int i = 0; i < pendingAnimations.getSlotCount(); ++i) {
+            ValueAnimator anim = pendingAnimations.get(i);
+            if (anim == null) {
+                continue;
             }
-            // pendingAnims holds any animations that have requested to be
-            // started
-            // We're going to clear sPendingAnimations, but starting animation
-            // may
-            // cause more to be added to the pending list (for example, if one
-            // animation
-            // starting triggers another starting). So we loop until
-            // sPendingAnimations
-            // is empty.
-            while (pendingAnimations.size() > 0) {
-                ArrayList<ValueAnimator> pendingCopy = (ArrayList<ValueAnimator>) pendingAnimations
-                        .clone();
-                pendingAnimations.clear();
-                int count = pendingCopy.size();
-                for (int i = 0; i < count; ++i) {
-                    ValueAnimator anim = pendingCopy.get(i);
-                    // If the animation has a startDelay, place it on the delayed
-                    // list
-                    if (anim.mStartDelay == 0) {
-                        anim.startAnimation();
-                    } else {
-                        delayedAnims.add(anim);
-                    }
-                }
+            // If the animation has a startDelay, place it on the delayed queue
+            if (anim.mStartDelay == 0) {
+                anim.startAnimation();
+            } else {
+                delayedAnims.add(anim);
             }
-            // fall through to process first frame of new animations
-            //$FALL-THROUGH$
-        case ValueAnimator.ANIMATION_FRAME:
-            // currentTime holds the common time for all animations processed
-            // during this frame
-            long currentTime = AnimationUtils.currentAnimationTimeMillis();
-            ArrayList<ValueAnimator> readyAnims = ValueAnimator.sReadyAnims.get();
-            ArrayList<ValueAnimator> endingAnims = ValueAnimator.sEndingAnims.get();
+        }
 
-            // First, process animations currently sitting on the delayed queue,
-            // adding
-            // them to the active animations if they are ready
-            int numDelayedAnims = delayedAnims.size();
-            for (int i = 0; i < numDelayedAnims; ++i) {
-                ValueAnimator anim = delayedAnims.get(i);
-                if (anim.delayedAnimationFrame(currentTime)) {
-                    readyAnims.add(anim);
-                }
-            }
-            int numReadyAnims = readyAnims.size();
-            if (numReadyAnims > 0) {
-                for (int i = 0; i < numReadyAnims; ++i) {
-                    ValueAnimator anim = readyAnims.get(i);
-                    anim.startAnimation();
-                    anim.mRunning = true;
-                    delayedAnims.remove(anim);
-                }
-                readyAnims.clear();
+        // First, process animations currently sitting on the delayed queue, moving
+        // them to the active animations if they are ready
+        int numDelayedAnims = delayedAnims.getSlotCount();
+        for (int i = 0; i < numDelayedAnims; ++i) {
+            ValueAnimator anim = delayedAnims.get(i);
+            if (anim != null && anim.delayedAnimationFrame(currentTime)) {
+                anim.startAnimation();
+                anim.mRunning = true;
             }
+        }
 
-            // Now process all active animations. The return value from
-            // animationFrame()
-            // tells the handler whether it should now be ended
-            int numAnims = animations.size();
-            int i = 0;
-            while (i < numAnims) {
-                ValueAnimator anim = animations.get(i);
-                if (anim.animationFrame(currentTime)) {
-                    endingAnims.add(anim);
-                }
-                if (animations.size() == numAnims) {
-                    ++i;
-                } else {
-                    // An animation might be canceled or ended by client code
-                    // during the animation frame. Check to see if this happened
-                    // by
-                    // seeing whether the current index is the same as it was
-                    // before
-                    // calling animationFrame(). Another approach would be to
-                    // copy
-                    // animations to a temporary list and process that list
-                    // instead,
-                    // but that entails garbage and processing overhead that
-                    // would
-                    // be nice to avoid.
-                    --numAnims;
-                    endingAnims.remove(anim);
-                }
+        // Now process all active animations. The return value from
+        // animationFrame() tells the handler whether it should now be ended.
+        // Animations canceled or ended by client code during the frame just leave
+        // an empty slot behind, and animations added during the frame are processed
+        // from the next one.
+        int numAnims = animations.getSlotCount();
+        for (int i = 0; i < numAnims; ++i) {
+            ValueAnimator anim = animations.get(i);
+            if (anim != null && anim.animationFrame(currentTime)) {
+                endingAnims.add(anim);
             }
-            if (endingAnims.size() > 0) {
-                for (i = 0; i < endingAnims.size(); ++i) {
-                    endingAnims.get(i).endAnimation();
-                }
-                endingAnims.clear();
+        }
+        int numEndingAnims = endingAnims.size();
+        for (int i = 0; i < numEndingAnims; ++i) {
+            ValueAnimator anim = endingAnims.get(i);
+            // skip the animations ended or restarted by the listeners of another one
+            if (animations.contains(anim)) {
+                anim.endAnimation();
             }
+        }
+        endingAnims.clear();
 
-            // If there are still active or delayed animations, call the handler
-            // again
-            // after the frameDelay
-            if (callAgain && (!animations.isEmpty() || !delayedAnims.isEmpty())) {
-                sendEmptyMessageDelayed(
-                        ValueAnimator.ANIMATION_FRAME,
-                        Math.max(0, ValueAnimator.sFrameDelay
-                                - (AnimationUtils.currentAnimationTimeMillis() - currentTime)));
-            }
-            break;
+        pendingAnimations.compact();
+        delayedAnims.compact();
+        animations.compact();
+
+        // If there are still active or delayed animations, request the next
+        // frame
+        if (!animations.isEmpty() || !delayedAnims.isEmpty()) {
+            scheduleFrame();
         }
     }
-}
\ No newline at end of file
+}
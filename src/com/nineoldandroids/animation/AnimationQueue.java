@@ -0,0 +1,103 @@
+package com.nineoldandroids.animation;
+
+import java.util.Arrays;
+
+/**
+ * Set of animations where each animation knows its slot, so that it can be added,
+ * removed and looked up in constant time.
+ * <p>
+ * An animation belongs to at most one queue at a time: adding it to a queue
+ * removes it from its previous one. Removing an animation only empties its slot,
+ * so a queue can be iterated by slot while animations are added or removed; the
+ * empty slots are reclaimed by {@link #compact()}, which must not be called during
+ * such an iteration.
+ * </p>
+ */
+final class AnimationQueue {
+
+    private static final int INITIAL_CAPACITY = 8;
+
+    private ValueAnimator[] slots = new ValueAnimator[INITIAL_CAPACITY];
+    /** Number of slots in use, including the emptied ones. */
+    private int slotCount = 0;
+    /** Number of animations actually in the queue. */
+    private int size = 0;
+
+    /**
+     * Adds the specified animation at the end of this queue, removing it from its
+     * current queue if any. Nothing happens if it already belongs to this queue.
+     */
+    void add(ValueAnimator anim) {
+        if (anim.mQueue == this) {
+            return;
+        }
+        if (anim.mQueue != null) {
+            anim.mQueue.remove(anim);
+        }
+        if (slotCount == slots.length) {
+            slots = Arrays.copyOf(slots, slotCount * 2);
+        }
+        slots[slotCount] = anim;
+        anim.mQueue = this;
+        anim.mSlot = slotCount;
+        slotCount++;
+        size++;
+    }
+
+    /**
+     * Removes the specified animation from this queue, if it belongs to it.
+     */
+    void remove(ValueAnimator anim) {
+        if (anim.mQueue != this) {
+            return;
+        }
+        slots[anim.mSlot] = null;
+        anim.mQueue = null;
+        anim.mSlot = -1;
+        size--;
+    }
+
+    boolean contains(ValueAnimator anim) {
+        return anim.mQueue == this;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns the number of slots to iterate over, including the empty ones.
+     */
+    int getSlotCount() {
+        return slotCount;
+    }
+
+    /**
+     * Returns the animation in the specified slot, or <code>null</code> if the slot
+     * was emptied.
+     */
+    ValueAnimator get(int slot) {
+        return slots[slot];
+    }
+
+    /**
+     * Moves the animations to the front of the queue to reclaim the empty slots,
+     * preserving their order.
+     */
+    void compact() {
+        if (size == slotCount) {
+            return;
+        }
+        int kept = 0;
+        for (int i = 0; i < slotCount; i++) {
+            ValueAnimator anim = slots[i];
+            if (anim != null) {
+                slots[kept] = anim;
+                anim.mSlot = kept;
+                kept++;
+            }
+        }
+        Arrays.fill(slots, kept, slotCount, null);
+        slotCount = kept;
+    }
+}
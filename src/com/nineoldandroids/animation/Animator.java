@@ -28,6 +28,16 @@ public abstract class Animator implements Cloneable {
      */
     ArrayList<AnimatorListener> mListeners = null;
 
+    /**
+     * Immutable copy of {@link #mListeners} used to dispatch the events, rebuilt
+     * only after the set of listeners changes. Listeners may thus add or remove
+     * listeners from their callbacks without disturbing the current dispatch, and
+     * without a copy per event. <code>null</code> when it must be rebuilt.
+     */
+    private AnimatorListener[] mListenersSnapshot = null;
+
+    private static final AnimatorListener[] NO_LISTENERS = new AnimatorListener[0];
+
     /**
      * Starts this animation. If the animation has a nonzero startDelay, the
      * animation will start running after that delay elapses. A non-delayed animation
@@ -120,6 +130,50 @@ public abstract class Animator implements Cloneable {
             mListeners = new ArrayList<AnimatorListener>();
         }
         mListeners.add(listener);
+        mListenersSnapshot = null;
+    }
+
+    /**
+     * Removes a listener from the set listening to this animation.
+     * 
+     * @param listener
+     *            the listener to be removed from the current set of listeners for
+     *            this animation.
+     */
+    public void removeListener(AnimatorListener listener) {
+        if (mListeners == null) {
+            return;
+        }
+        mListeners.remove(listener);
+        if (mListeners.size() == 0) {
+            mListeners = null;
+        }
+        mListenersSnapshot = null;
+    }
+
+    /**
+     * Removes all listeners from this object.
+     */
+    public void removeAllListeners() {
+        if (mListeners != null) {
+            mListeners.clear();
+            mListeners = null;
+        }
+        mListenersSnapshot = null;
+    }
+
+    /**
+     * Returns the listeners to notify of an event. The returned array must not be
+     * modified, and is not affected by later changes of the listeners.
+     * 
+     * @return the current listeners, possibly an empty array.
+     */
+    AnimatorListener[] getListenersSnapshot() {
+        if (mListenersSnapshot == null) {
+            mListenersSnapshot = mListeners == null ? NO_LISTENERS : mListeners
+                    .toArray(new AnimatorListener[mListeners.size()]);
+        }
+        return mListenersSnapshot;
     }
 
     @Override
@@ -134,6 +188,7 @@ public abstract class Animator implements Cloneable {
                     anim.mListeners.add(oldListeners.get(i));
                 }
             }
+            anim.mListenersSnapshot = null;
             return anim;
         } catch (CloneNotSupportedException e) {
             throw new AssertionError();
@@ -0,0 +1,72 @@
+package com.nineoldandroids.animation;
+
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import android.view.animation.Interpolator;
+
+/**
+ * {@link Interpolator} sampling another interpolator into a table of values, and
+ * interpolating linearly between the samples. Each call costs a table lookup,
+ * whatever the cost of the original interpolator.
+ * <p>
+ * Tables are shared: {@link #of(Interpolator)} returns the same instance for the
+ * same source interpolator, so that all the animations using it read the same
+ * table. The source interpolator must therefore be stateless.
+ * </p>
+ * <p>
+ * The input is expected between 0 and 1, as provided by {@link ValueAnimator}.
+ * Outside of this range, the first or last segment of the table is extended.
+ * </p>
+ */
+public final class BakedInterpolator implements Interpolator {
+
+    /** Number of segments of the tables, enough for an error far below a pixel. */
+    private static final int SEGMENTS = 256;
+
+    private static final Map<Interpolator, BakedInterpolator> sCache = new WeakHashMap<Interpolator, BakedInterpolator>();
+
+    private final float[] mValues = new float[SEGMENTS + 1];
+
+    private BakedInterpolator(Interpolator source) {
+        for (int i = 0; i <= SEGMENTS; ++i) {
+            mValues[i] = source.getInterpolation((float) i / SEGMENTS);
+        }
+    }
+
+    /**
+     * Returns the baked version of the specified interpolator, sampling it on the
+     * first call only.
+     * 
+     * @param source
+     *            The interpolator to sample. It should be stateless.
+     * @return The baked interpolator, shared by all the callers passing the same
+     *         source.
+     */
+    public static BakedInterpolator of(Interpolator source) {
+        if (source instanceof BakedInterpolator) {
+            return (BakedInterpolator) source;
+        }
+        synchronized (sCache) {
+            BakedInterpolator baked = sCache.get(source);
+            if (baked == null) {
+                baked = new BakedInterpolator(source);
+                sCache.put(source, baked);
+            }
+            return baked;
+        }
+    }
+
+    @Override
+    public float getInterpolation(float input) {
+        float position = input * SEGMENTS;
+        int index = (int) position;
+        if (index < 0) {
+            index = 0;
+        } else if (index >= SEGMENTS) {
+            index = SEGMENTS - 1;
+        }
+        float start = mValues[index];
+        return start + (position - index) * (mValues[index + 1] - start);
+    }
+}
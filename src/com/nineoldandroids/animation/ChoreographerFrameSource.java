@@ -0,0 +1,48 @@
+package com.nineoldandroids.animation;
+
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.view.Choreographer;
+
+/**
+ * {@link FrameSource} synchronized with the display refresh through the
+ * {@link Choreographer} of the calling thread. Frames are delivered on vsync, at
+ * the same time as input and drawing, and all the animations of a frame use the
+ * vsync time.
+ */
+@TargetApi(Build.VERSION_CODES.JELLY_BEAN)
+public class ChoreographerFrameSource extends FrameSource implements
+        Choreographer.FrameCallback {
+
+    private static final long NANOS_PER_MS = 1000000;
+
+    private final Choreographer choreographer = Choreographer.getInstance();
+
+    private FrameCallback callback;
+
+    @Override
+    public void postFrameCallback(FrameCallback callback) {
+        if (this.callback != null) {
+            return;
+        }
+        this.callback = callback;
+        choreographer.postFrameCallback(this);
+    }
+
+    @Override
+    public void removeFrameCallback(FrameCallback callback) {
+        if (this.callback == callback) {
+            this.callback = null;
+            choreographer.removeFrameCallback(this);
+        }
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        FrameCallback frameCallback = callback;
+        callback = null;
+        if (frameCallback != null) {
+            frameCallback.doFrame(frameTimeNanos / NANOS_PER_MS);
+        }
+    }
+}
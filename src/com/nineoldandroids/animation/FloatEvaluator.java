@@ -15,7 +15,7 @@ package com.nineoldandroids.animation;
  * This evaluator can be used to perform type interpolation between
  * <code>float</code> values.
  */
-class FloatEvaluator implements TypeEvaluator<Number> {
+class FloatEvaluator implements FloatTypeEvaluator {
 
     /**
      * This function returns the result of linearly interpolating the start and end
@@ -41,4 +41,9 @@ class FloatEvaluator implements TypeEvaluator<Number> {
         float startFloat = startValue.floatValue();
         return startFloat + fraction * (endValue.floatValue() - startFloat);
     }
+
+    @Override
+    public float evaluateFloat(float fraction, float startValue, float endValue) {
+        return startValue + fraction * (endValue - startValue);
+    }
 }
\ No newline at end of file
@@ -13,8 +13,6 @@ package com.nineoldandroids.animation;
 
 import java.util.ArrayList;
 
-import android.view.animation.Interpolator;
-
 /**
  * This class holds a collection of FloatKeyframe objects and is called by
  * ValueAnimator to calculate values between those keyframes for a given animation.
@@ -28,15 +26,23 @@ import android.view.animation.Interpolator;
  * autoboxing to the Object equivalents of these primitive types.
  * </p>
  */
-@SuppressWarnings("unchecked")
+@SuppressWarnings({ "rawtypes", "unchecked" })
 class FloatKeyframeSet extends KeyframeSet {
-    private float firstValue;
-    private float lastValue;
-    private float deltaValue;
-    private boolean firstTime = true;
+    private final float[] mFloatValues;
+    private final float firstValue;
+    private final float lastValue;
+    private final float deltaValue;
+    private FloatTypeEvaluator mFloatEvaluator;
 
     public FloatKeyframeSet(FloatKeyframe... keyframes) {
         super(keyframes);
+        mFloatValues = new float[mNumKeyframes];
+        for (int i = 0; i < mNumKeyframes; ++i) {
+            mFloatValues[i] = keyframes[i].getFloatValue();
+        }
+        firstValue = mFloatValues[0];
+        lastValue = mFloatValues[mNumKeyframes - 1];
+        deltaValue = lastValue - firstValue;
     }
 
     @Override
@@ -56,74 +62,45 @@ class FloatKeyframeSet extends KeyframeSet {
         return newSet;
     }
 
+    @Override
+    public void setEvaluator(TypeEvaluator evaluator) {
+        super.setEvaluator(evaluator);
+        mFloatEvaluator = evaluator instanceof FloatTypeEvaluator ? (FloatTypeEvaluator) evaluator
+                : null;
+    }
+
+    /**
+     * Interpolates between two values, with the custom evaluator if one was set.
+     * The evaluator is only called with boxed values if it doesn't implement
+     * {@link FloatTypeEvaluator}.
+     */
+    private float evaluate(float fraction, float startValue, float endValue) {
+        if (mEvaluator == null) {
+            return startValue + fraction * (endValue - startValue);
+        }
+        if (mFloatEvaluator != null) {
+            return mFloatEvaluator.evaluateFloat(fraction, startValue, endValue);
+        }
+        return ((Number) mEvaluator.evaluate(fraction, startValue, endValue)).floatValue();
+    }
+
     public float getFloatValue(float fraction) {
         if (mNumKeyframes == 2) {
-            if (firstTime) {
-                firstTime = false;
-                firstValue = ((FloatKeyframe) mKeyframes.get(0)).getFloatValue();
-                lastValue = ((FloatKeyframe) mKeyframes.get(1)).getFloatValue();
-                deltaValue = lastValue - firstValue;
-            }
             if (mInterpolator != null) {
                 fraction = mInterpolator.getInterpolation(fraction);
             }
             if (mEvaluator == null) {
                 return firstValue + fraction * deltaValue;
-            } else {
-                return ((Number) mEvaluator.evaluate(fraction, firstValue, lastValue)).floatValue();
             }
+            return evaluate(fraction, firstValue, lastValue);
         }
-        if (fraction <= 0f) {
-            final FloatKeyframe prevKeyframe = (FloatKeyframe) mKeyframes.get(0);
-            final FloatKeyframe nextKeyframe = (FloatKeyframe) mKeyframes.get(1);
-            float prevValue = prevKeyframe.getFloatValue();
-            float nextValue = nextKeyframe.getFloatValue();
-            float prevFraction = prevKeyframe.getFraction();
-            float nextFraction = nextKeyframe.getFraction();
-            final/* Time */Interpolator interpolator = nextKeyframe.getInterpolator();
-            if (interpolator != null) {
-                fraction = interpolator.getInterpolation(fraction);
-            }
-            float intervalFraction = (fraction - prevFraction) / (nextFraction - prevFraction);
-            return mEvaluator == null ? prevValue + intervalFraction * (nextValue - prevValue)
-                    : ((Number) mEvaluator.evaluate(intervalFraction, prevValue, nextValue))
-                            .floatValue();
-        } else if (fraction >= 1f) {
-            final FloatKeyframe prevKeyframe = (FloatKeyframe) mKeyframes.get(mNumKeyframes - 2);
-            final FloatKeyframe nextKeyframe = (FloatKeyframe) mKeyframes.get(mNumKeyframes - 1);
-            float prevValue = prevKeyframe.getFloatValue();
-            float nextValue = nextKeyframe.getFloatValue();
-            float prevFraction = prevKeyframe.getFraction();
-            float nextFraction = nextKeyframe.getFraction();
-            final/* Time */Interpolator interpolator = nextKeyframe.getInterpolator();
-            if (interpolator != null) {
-                fraction = interpolator.getInterpolation(fraction);
-            }
-            float intervalFraction = (fraction - prevFraction) / (nextFraction - prevFraction);
-            return mEvaluator == null ? prevValue + intervalFraction * (nextValue - prevValue)
-                    : ((Number) mEvaluator.evaluate(intervalFraction, prevValue, nextValue))
-                            .floatValue();
-        }
-        FloatKeyframe prevKeyframe = (FloatKeyframe) mKeyframes.get(0);
-        for (int i = 1; i < mNumKeyframes; ++i) {
-            FloatKeyframe nextKeyframe = (FloatKeyframe) mKeyframes.get(i);
-            if (fraction < nextKeyframe.getFraction()) {
-                final/* Time */Interpolator interpolator = nextKeyframe.getInterpolator();
-                if (interpolator != null) {
-                    fraction = interpolator.getInterpolation(fraction);
-                }
-                float intervalFraction = (fraction - prevKeyframe.getFraction())
-                        / (nextKeyframe.getFraction() - prevKeyframe.getFraction());
-                float prevValue = prevKeyframe.getFloatValue();
-                float nextValue = nextKeyframe.getFloatValue();
-                return mEvaluator == null ? prevValue + intervalFraction * (nextValue - prevValue)
-                        : ((Number) mEvaluator.evaluate(intervalFraction, prevValue, nextValue))
-                                .floatValue();
-            }
-            prevKeyframe = nextKeyframe;
+        int next = findInterval(fraction);
+        if (next < 0) {
+            // shouldn't get here
+            return lastValue;
         }
-        // shouldn't get here
-        return ((Number) mKeyframes.get(mNumKeyframes - 1).getValue()).floatValue();
+        return evaluate(getIntervalFraction(fraction, next), mFloatValues[next - 1],
+                mFloatValues[next]);
     }
 
 }
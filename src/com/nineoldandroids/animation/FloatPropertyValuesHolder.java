@@ -26,6 +26,16 @@ class FloatPropertyValuesHolder extends PropertyValuesHolder {
         return mFloatAnimatedValue;
     }
 
+    @Override
+    float getAnimatedFloatValue() {
+        return mFloatAnimatedValue;
+    }
+
+    @Override
+    int getAnimatedIntValue() {
+        return (int) mFloatAnimatedValue;
+    }
+
     @Override
     public FloatPropertyValuesHolder clone() {
         FloatPropertyValuesHolder newPVH = (FloatPropertyValuesHolder) super.clone();
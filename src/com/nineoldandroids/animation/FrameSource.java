@@ -0,0 +1,76 @@
+package com.nineoldandroids.animation;
+
+import android.os.Build;
+
+/**
+ * Source of the timing pulse driving the animations of a thread.
+ * <p>
+ * The animation engine asks its frame source for a frame whenever animations are
+ * running or about to start, and processes all of them in the resulting callback,
+ * using the frame time it is given. Each request is for a single frame; requesting
+ * a frame while one is already pending has no effect.
+ * </p>
+ * <p>
+ * By default, a {@link ChoreographerFrameSource} is used on Jelly Bean and above,
+ * so that frames are aligned with the display refresh, and a
+ * {@link HandlerFrameSource} is used on older versions. Another source can be set
+ * with {@link ValueAnimator#setFrameSource(FrameSource)}, for instance a
+ * {@link ManualFrameSource} to step the animations explicitly.
+ * </p>
+ */
+public abstract class FrameSource {
+
+    /**
+     * Callback invoked by a {@link FrameSource} when a frame is due.
+     */
+    public interface FrameCallback {
+        /**
+         * Called when a new frame must be processed.
+         * 
+         * @param frameTimeMillis
+         *            The time of the frame, in milliseconds, in the
+         *            {@link android.view.animation.AnimationUtils#currentAnimationTimeMillis()}
+         *            time base.
+         */
+        void doFrame(long frameTimeMillis);
+    }
+
+    /**
+     * Requests a call to the specified callback on the next frame. If the callback
+     * is already waiting for a frame, it is only called once.
+     * 
+     * @param callback
+     *            The callback to invoke.
+     */
+    public abstract void postFrameCallback(FrameCallback callback);
+
+    /**
+     * Removes a pending request for the specified callback, if any.
+     * 
+     * @param callback
+     *            The callback that should not be invoked anymore.
+     */
+    public abstract void removeFrameCallback(FrameCallback callback);
+
+    /**
+     * Returns whether this source delivers its frames through the
+     * {@link android.os.Looper} of the calling thread, in which case animations can
+     * only be started on Looper threads.
+     */
+    boolean requiresLooper() {
+        return true;
+    }
+
+    /**
+     * Creates the best frame source available on this platform, for the calling
+     * thread.
+     * 
+     * @return a new frame source bound to the calling thread.
+     */
+    static FrameSource createDefault() {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+            return new ChoreographerFrameSource();
+        }
+        return new HandlerFrameSource();
+    }
+}
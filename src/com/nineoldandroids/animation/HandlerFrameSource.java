@@ -0,0 +1,50 @@
+package com.nineoldandroids.animation;
+
+import android.os.Handler;
+import android.view.animation.AnimationUtils;
+
+/**
+ * {@link FrameSource} posting frames on a {@link Handler} of the calling thread,
+ * every {@link ValueAnimator#getFrameDelay()} milliseconds. The frames are not
+ * aligned with the display refresh, so this source is only used where
+ * {@link ChoreographerFrameSource} is not available.
+ */
+public class HandlerFrameSource extends FrameSource {
+
+    private final Handler handler = new Handler();
+
+    private FrameCallback callback;
+    private long lastFrameTime;
+
+    private final Runnable frameRunnable = new Runnable() {
+        @Override
+        public void run() {
+            FrameCallback frameCallback = callback;
+            callback = null;
+            if (frameCallback != null) {
+                lastFrameTime = AnimationUtils.currentAnimationTimeMillis();
+                frameCallback.doFrame(lastFrameTime);
+            }
+        }
+    };
+
+    @Override
+    public void postFrameCallback(FrameCallback callback) {
+        if (this.callback != null) {
+            return;
+        }
+        this.callback = callback;
+        // the delay is counted from the beginning of the previous frame, so that the
+        // processing time of the frames doesn't slow the animations down
+        long elapsed = AnimationUtils.currentAnimationTimeMillis() - lastFrameTime;
+        handler.postDelayed(frameRunnable, Math.max(0, ValueAnimator.sFrameDelay - elapsed));
+    }
+
+    @Override
+    public void removeFrameCallback(FrameCallback callback) {
+        if (this.callback == callback) {
+            this.callback = null;
+            handler.removeCallbacks(frameRunnable);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.nineoldandroids.animation;
+
+/**
+ * Frame source and clock stepping the animations of a thread from plain code, with
+ * no {@link android.os.Looper} involved. Time only advances when the driver is
+ * stepped, which makes the animations fully deterministic.
+ * <p>
+ * Typical usage, on the thread running the animations:
+ * </p>
+ * 
+ * <pre>
+ * HeadlessFrameDriver driver = new HeadlessFrameDriver();
+ * driver.install();
+ * animator.start();
+ * driver.runUntilIdle(16, 1000);
+ * </pre>
+ */
+public class HeadlessFrameDriver extends ManualFrameSource implements AnimationClock {
+
+    private long time;
+
+    /**
+     * Creates a driver whose clock starts at 0.
+     */
+    public HeadlessFrameDriver() {
+        this(0);
+    }
+
+    /**
+     * Creates a driver whose clock starts at the specified time.
+     * 
+     * @param startTime
+     *            The initial time of the clock, in milliseconds.
+     */
+    public HeadlessFrameDriver(long startTime) {
+        this.time = startTime;
+    }
+
+    /**
+     * Makes this driver the frame source and the clock of the animations of the
+     * calling thread.
+     */
+    public void install() {
+        ValueAnimator.setFrameSource(this);
+        ValueAnimator.setClock(this);
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        return time;
+    }
+
+    /**
+     * Moves the clock forward without processing any frame.
+     * 
+     * @param millis
+     *            The time to add to the clock, in milliseconds.
+     */
+    public void advance(long millis) {
+        time += millis;
+    }
+
+    /**
+     * Moves the clock forward and processes a frame at the new time, if one was
+     * requested.
+     * 
+     * @param frameInterval
+     *            The time to add to the clock before the frame, in milliseconds.
+     * @return {@code true} if a frame was processed.
+     */
+    public boolean step(long frameInterval) {
+        time += frameInterval;
+        return pulse(time);
+    }
+
+    /**
+     * Processes frames at regular intervals until no animation requests a frame
+     * anymore.
+     * 
+     * @param frameInterval
+     *            The time between two frames, in milliseconds.
+     * @param maxFrames
+     *            The maximum number of frames to process, to bound infinite
+     *            animations.
+     * @return the number of frames processed.
+     */
+    public int runUntilIdle(long frameInterval, int maxFrames) {
+        int frames = 0;
+        while (frames < maxFrames && step(frameInterval)) {
+            frames++;
+        }
+        return frames;
+    }
+}
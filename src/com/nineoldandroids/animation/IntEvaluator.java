@@ -19,7 +19,7 @@ package com.nineoldandroids.animation;
 /**
  * This evaluator can be used to perform type interpolation between <code>int</code> values.
  */
-class IntEvaluator implements TypeEvaluator<Integer> {
+class IntEvaluator implements IntTypeEvaluator {
 
     /**
      * This function returns the result of linearly interpolating the start and end values, with
@@ -40,4 +40,9 @@ class IntEvaluator implements TypeEvaluator<Integer> {
         int startInt = startValue;
         return (int)(startInt + fraction * (endValue - startInt));
     }
+
+    @Override
+    public int evaluateInt(float fraction, int startValue, int endValue) {
+        return (int)(startValue + fraction * (endValue - startValue));
+    }
 }
\ No newline at end of file
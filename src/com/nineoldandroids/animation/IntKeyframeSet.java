@@ -16,8 +16,6 @@
 
 package com.nineoldandroids.animation;
 
-import android.view.animation.Interpolator;
-
 import java.util.ArrayList;
 
 /**
@@ -30,15 +28,23 @@ import java.util.ArrayList;
  * TypeEvaluator set for the animation, so that values can be calculated without autoboxing to the
  * Object equivalents of these primitive types.</p>
  */
-@SuppressWarnings("unchecked")
+@SuppressWarnings({ "rawtypes", "unchecked" })
 class IntKeyframeSet extends KeyframeSet {
-    private int firstValue;
-    private int lastValue;
-    private int deltaValue;
-    private boolean firstTime = true;
+    private final int[] mIntValues;
+    private final int firstValue;
+    private final int lastValue;
+    private final int deltaValue;
+    private IntTypeEvaluator mIntEvaluator;
 
     public IntKeyframeSet(IntKeyframe... keyframes) {
         super(keyframes);
+        mIntValues = new int[mNumKeyframes];
+        for (int i = 0; i < mNumKeyframes; ++i) {
+            mIntValues[i] = keyframes[i].getIntValue();
+        }
+        firstValue = mIntValues[0];
+        lastValue = mIntValues[mNumKeyframes - 1];
+        deltaValue = lastValue - firstValue;
     }
 
     @Override
@@ -58,76 +64,45 @@ class IntKeyframeSet extends KeyframeSet {
         return newSet;
     }
 
+    @Override
+    public void setEvaluator(TypeEvaluator evaluator) {
+        super.setEvaluator(evaluator);
+        mIntEvaluator = evaluator instanceof IntTypeEvaluator ? (IntTypeEvaluator) evaluator
+                : null;
+    }
+
+    /**
+     * Interpolates between two values, with the custom evaluator if one was set.
+     * The evaluator is only called with boxed values if it doesn't implement
+     * {@link IntTypeEvaluator}.
+     */
+    private int evaluate(float fraction, int startValue, int endValue) {
+        if (mEvaluator == null) {
+            return startValue + (int)(fraction * (endValue - startValue));
+        }
+        if (mIntEvaluator != null) {
+            return mIntEvaluator.evaluateInt(fraction, startValue, endValue);
+        }
+        return ((Number) mEvaluator.evaluate(fraction, startValue, endValue)).intValue();
+    }
+
     public int getIntValue(float fraction) {
         if (mNumKeyframes == 2) {
-            if (firstTime) {
-                firstTime = false;
-                firstValue = ((IntKeyframe) mKeyframes.get(0)).getIntValue();
-                lastValue = ((IntKeyframe) mKeyframes.get(1)).getIntValue();
-                deltaValue = lastValue - firstValue;
-            }
             if (mInterpolator != null) {
                 fraction = mInterpolator.getInterpolation(fraction);
             }
             if (mEvaluator == null) {
                 return firstValue + (int)(fraction * deltaValue);
-            } else {
-                return ((Number)mEvaluator.evaluate(fraction, firstValue, lastValue)).intValue();
             }
+            return evaluate(fraction, firstValue, lastValue);
         }
-        if (fraction <= 0f) {
-            final IntKeyframe prevKeyframe = (IntKeyframe) mKeyframes.get(0);
-            final IntKeyframe nextKeyframe = (IntKeyframe) mKeyframes.get(1);
-            int prevValue = prevKeyframe.getIntValue();
-            int nextValue = nextKeyframe.getIntValue();
-            float prevFraction = prevKeyframe.getFraction();
-            float nextFraction = nextKeyframe.getFraction();
-            final /*Time*/Interpolator interpolator = nextKeyframe.getInterpolator();
-            if (interpolator != null) {
-                fraction = interpolator.getInterpolation(fraction);
-            }
-            float intervalFraction = (fraction - prevFraction) / (nextFraction - prevFraction);
-            return mEvaluator == null ?
-                    prevValue + (int)(intervalFraction * (nextValue - prevValue)) :
-                    ((Number)mEvaluator.evaluate(intervalFraction, prevValue, nextValue)).
-                            intValue();
-        } else if (fraction >= 1f) {
-            final IntKeyframe prevKeyframe = (IntKeyframe) mKeyframes.get(mNumKeyframes - 2);
-            final IntKeyframe nextKeyframe = (IntKeyframe) mKeyframes.get(mNumKeyframes - 1);
-            int prevValue = prevKeyframe.getIntValue();
-            int nextValue = nextKeyframe.getIntValue();
-            float prevFraction = prevKeyframe.getFraction();
-            float nextFraction = nextKeyframe.getFraction();
-            final /*Time*/Interpolator interpolator = nextKeyframe.getInterpolator();
-            if (interpolator != null) {
-                fraction = interpolator.getInterpolation(fraction);
-            }
-            float intervalFraction = (fraction - prevFraction) / (nextFraction - prevFraction);
-            return mEvaluator == null ?
-                    prevValue + (int)(intervalFraction * (nextValue - prevValue)) :
-                    ((Number)mEvaluator.evaluate(intervalFraction, prevValue, nextValue)).intValue();
-        }
-        IntKeyframe prevKeyframe = (IntKeyframe) mKeyframes.get(0);
-        for (int i = 1; i < mNumKeyframes; ++i) {
-            IntKeyframe nextKeyframe = (IntKeyframe) mKeyframes.get(i);
-            if (fraction < nextKeyframe.getFraction()) {
-                final /*Time*/Interpolator interpolator = nextKeyframe.getInterpolator();
-                if (interpolator != null) {
-                    fraction = interpolator.getInterpolation(fraction);
-                }
-                float intervalFraction = (fraction - prevKeyframe.getFraction()) /
-                    (nextKeyframe.getFraction() - prevKeyframe.getFraction());
-                int prevValue = prevKeyframe.getIntValue();
-                int nextValue = nextKeyframe.getIntValue();
-                return mEvaluator == null ?
-                        prevValue + (int)(intervalFraction * (nextValue - prevValue)) :
-                        ((Number)mEvaluator.evaluate(intervalFraction, prevValue, nextValue)).
-                                intValue();
-            }
-            prevKeyframe = nextKeyframe;
+        int next = findInterval(fraction);
+        if (next < 0) {
+            // shouldn't get here
+            return lastValue;
         }
-        // shouldn't get here
-        return ((Number)mKeyframes.get(mNumKeyframes - 1).getValue()).intValue();
+        return evaluate(getIntervalFraction(fraction, next), mIntValues[next - 1],
+                mIntValues[next]);
     }
 
 }
@@ -26,6 +26,16 @@ class IntPropertyValuesHolder extends PropertyValuesHolder {
         return mIntAnimatedValue;
     }
 
+    @Override
+    int getAnimatedIntValue() {
+        return mIntAnimatedValue;
+    }
+
+    @Override
+    float getAnimatedFloatValue() {
+        return mIntAnimatedValue;
+    }
+
     @Override
     public IntPropertyValuesHolder clone() {
         IntPropertyValuesHolder newPVH = (IntPropertyValuesHolder) super.clone();
@@ -0,0 +1,23 @@
+package com.nineoldandroids.animation;
+
+/**
+ * {@link TypeEvaluator} that can also interpolate between <code>int</code> values
+ * directly, so that int animations using it don't box their values on each frame.
+ */
+interface IntTypeEvaluator extends TypeEvaluator<Integer> {
+
+    /**
+     * Interpolates between the specified values, like
+     * {@link #evaluate(float, Object, Object)} but without boxing.
+     * 
+     * @param fraction
+     *            The fraction from the starting to the ending values
+     * @param startValue
+     *            The start value.
+     * @param endValue
+     *            The end value.
+     * @return An interpolation between the start and end values, given the
+     *         <code>fraction</code> parameter.
+     */
+    int evaluateInt(float fraction, int startValue, int endValue);
+}
@@ -30,9 +30,24 @@ class KeyframeSet {
     private Keyframe mFirstKeyframe;
     private Keyframe mLastKeyframe;
     /* Time */Interpolator mInterpolator; // only used in the 2-keyframe case
-    ArrayList<Keyframe> mKeyframes; // only used when there are not 2 keyframes
+    ArrayList<Keyframe> mKeyframes;
     TypeEvaluator mEvaluator;
 
+    /*
+     * The fractions and interpolators of the keyframes, copied into arrays so that
+     * the interval of a fraction can be found by binary search without going
+     * through the keyframe objects.
+     */
+    final float[] mFractions;
+    final/* Time */Interpolator[] mInterpolators;
+
+    /**
+     * Index of the keyframe ending the interval found by the last call to
+     * {@link #findInterval(float)}. Animations usually play monotonically, so the
+     * next fraction is most likely in the same interval or in the following one.
+     */
+    private int mLastInterval = 1;
+
     public KeyframeSet(Keyframe... keyframes) {
         mNumKeyframes = keyframes.length;
         mKeyframes = new ArrayList<Keyframe>();
@@ -40,6 +55,12 @@ class KeyframeSet {
         mFirstKeyframe = mKeyframes.get(0);
         mLastKeyframe = mKeyframes.get(mNumKeyframes - 1);
         mInterpolator = mLastKeyframe.getInterpolator();
+        mFractions = new float[mNumKeyframes];
+        mInterpolators = new Interpolator[mNumKeyframes];
+        for (int i = 0; i < mNumKeyframes; ++i) {
+            mFractions[i] = keyframes[i].getFraction();
+            mInterpolators[i] = keyframes[i].getInterpolator();
+        }
     }
 
     public static KeyframeSet ofInt(int... values) {
@@ -124,47 +145,76 @@ class KeyframeSet {
             return mEvaluator.evaluate(fraction, mFirstKeyframe.getValue(),
                     mLastKeyframe.getValue());
         }
+        int next = findInterval(fraction);
+        if (next < 0) {
+            // shouldn't reach here
+            return mLastKeyframe.getValue();
+        }
+        return mEvaluator.evaluate(getIntervalFraction(fraction, next),
+                mKeyframes.get(next - 1).getValue(), mKeyframes.get(next).getValue());
+    }
+
+    /**
+     * Finds the interval of keyframes to use for the specified fraction. Fractions
+     * outside the [0-1] bounds use the first or last interval.
+     * 
+     * @param fraction
+     *            The elapsed fraction of the animation
+     * @return The index of the keyframe ending the interval, or -1 if the keyframes
+     *         don't cover the fraction.
+     */
+    int findInterval(float fraction) {
         if (fraction <= 0f) {
-            final Keyframe nextKeyframe = mKeyframes.get(1);
-            final/* Time */Interpolator interpolator = nextKeyframe.getInterpolator();
-            if (interpolator != null) {
-                fraction = interpolator.getInterpolation(fraction);
-            }
-            final float prevFraction = mFirstKeyframe.getFraction();
-            float intervalFraction = (fraction - prevFraction)
-                    / (nextKeyframe.getFraction() - prevFraction);
-            return mEvaluator.evaluate(intervalFraction, mFirstKeyframe.getValue(),
-                    nextKeyframe.getValue());
+            return 1;
         } else if (fraction >= 1f) {
-            final Keyframe prevKeyframe = mKeyframes.get(mNumKeyframes - 2);
-            final/* Time */Interpolator interpolator = mLastKeyframe.getInterpolator();
-            if (interpolator != null) {
-                fraction = interpolator.getInterpolation(fraction);
-            }
-            final float prevFraction = prevKeyframe.getFraction();
-            float intervalFraction = (fraction - prevFraction)
-                    / (mLastKeyframe.getFraction() - prevFraction);
-            return mEvaluator.evaluate(intervalFraction, prevKeyframe.getValue(),
-                    mLastKeyframe.getValue());
+            return mNumKeyframes - 1;
+        }
+        final float[] fractions = mFractions;
+        // the interval ending at index i is used if i is the first index with
+        // fraction < fractions[i]
+        int i = mLastInterval;
+        if (fraction < fractions[i] && (i == 1 || fraction >= fractions[i - 1])) {
+            return i;
         }
-        Keyframe prevKeyframe = mFirstKeyframe;
-        for (int i = 1; i < mNumKeyframes; ++i) {
-            Keyframe nextKeyframe = mKeyframes.get(i);
-            if (fraction < nextKeyframe.getFraction()) {
-                final/* Time */Interpolator interpolator = nextKeyframe.getInterpolator();
-                if (interpolator != null) {
-                    fraction = interpolator.getInterpolation(fraction);
-                }
-                final float prevFraction = prevKeyframe.getFraction();
-                float intervalFraction = (fraction - prevFraction)
-                        / (nextKeyframe.getFraction() - prevFraction);
-                return mEvaluator.evaluate(intervalFraction, prevKeyframe.getValue(),
-                        nextKeyframe.getValue());
+        if (i + 1 < mNumKeyframes && fraction >= fractions[i] && fraction < fractions[i + 1]) {
+            mLastInterval = i + 1;
+            return i + 1;
+        }
+        int low = 1;
+        int high = mNumKeyframes - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (fraction < fractions[mid]) {
+                high = mid;
+            } else {
+                low = mid + 1;
             }
-            prevKeyframe = nextKeyframe;
         }
-        // shouldn't reach here
-        return mLastKeyframe.getValue();
+        if (fraction >= fractions[low]) {
+            return -1;
+        }
+        mLastInterval = low;
+        return low;
+    }
+
+    /**
+     * Returns the fraction between the two keyframes of an interval, applying the
+     * interpolator of the interval.
+     * 
+     * @param fraction
+     *            The elapsed fraction of the animation
+     * @param next
+     *            The index of the keyframe ending the interval, as returned by
+     *            {@link #findInterval(float)}.
+     * @return The fraction within the interval.
+     */
+    float getIntervalFraction(float fraction, int next) {
+        final/* Time */Interpolator interpolator = mInterpolators[next];
+        if (interpolator != null) {
+            fraction = interpolator.getInterpolation(fraction);
+        }
+        final float prevFraction = mFractions[next - 1];
+        return (fraction - prevFraction) / (mFractions[next] - prevFraction);
     }
 
     @Override
@@ -0,0 +1,67 @@
+package com.nineoldandroids.animation;
+
+/**
+ * {@link FrameSource} that only delivers frames when {@link #pulse(long)} is
+ * called, with the given frame time. This makes it possible to step the
+ * animations deterministically, for instance to verify their timing.
+ */
+public class ManualFrameSource extends FrameSource {
+
+    private FrameCallback callback;
+    private int frameCount = 0;
+
+    @Override
+    public void postFrameCallback(FrameCallback callback) {
+        this.callback = callback;
+    }
+
+    @Override
+    public void removeFrameCallback(FrameCallback callback) {
+        if (this.callback == callback) {
+            this.callback = null;
+        }
+    }
+
+    @Override
+    boolean requiresLooper() {
+        return false;
+    }
+
+    /**
+     * Returns whether a frame was requested since the last pulse.
+     * 
+     * @return {@code true} if the next call to {@link #pulse(long)} will process a
+     *         frame.
+     */
+    public boolean hasPendingFrame() {
+        return callback != null;
+    }
+
+    /**
+     * Returns the number of frames delivered by this source so far.
+     * 
+     * @return the number of pulses that processed a frame.
+     */
+    public int getFrameCount() {
+        return frameCount;
+    }
+
+    /**
+     * Delivers a frame, if one was requested.
+     * 
+     * @param frameTimeMillis
+     *            The time of the frame, in milliseconds.
+     * @return {@code true} if a frame was processed, {@code false} if none was
+     *         requested.
+     */
+    public boolean pulse(long frameTimeMillis) {
+        FrameCallback frameCallback = callback;
+        if (frameCallback == null) {
+            return false;
+        }
+        callback = null;
+        frameCount++;
+        frameCallback.doFrame(frameTimeMillis);
+        return true;
+    }
+}
@@ -208,6 +208,28 @@ class PropertyValuesHolder implements Cloneable {
         return mAnimatedValue;
     }
 
+    /**
+     * Internal function, called by ValueAnimator, to retrieve the value most
+     * recently calculated in calculateValue() as an int. Subclasses holding
+     * primitive values override it to avoid boxing.
+     * 
+     * @return the animated value, converted to an int.
+     */
+    int getAnimatedIntValue() {
+        return ((Number) getAnimatedValue()).intValue();
+    }
+
+    /**
+     * Internal function, called by ValueAnimator, to retrieve the value most
+     * recently calculated in calculateValue() as a float. Subclasses holding
+     * primitive values override it to avoid boxing.
+     * 
+     * @return the animated value, converted to a float.
+     */
+    float getAnimatedFloatValue() {
+        return ((Number) getAnimatedValue()).floatValue();
+    }
+
     @Override
     public String toString() {
         return mPropertyName + ": " + mKeyframeSet.toString();
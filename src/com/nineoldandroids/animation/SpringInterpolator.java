@@ -0,0 +1,266 @@
+package com.nineoldandroids.animation;
+
+import android.view.animation.Interpolator;
+
+/**
+ * {@link Interpolator} following a damped spring that starts with a given
+ * displacement and velocity, and settles on its target. Unlike regular
+ * interpolators, the duration of the animation is computed from the physics:
+ * {@link #getDuration()} returns the time the spring takes to settle within the
+ * threshold distance of the target, and must be used as the duration of the
+ * animation.
+ * <p>
+ * This makes it possible to continue a gesture: the animated object leaves with
+ * the velocity of the finger, and the settle time depends on the distance to cover
+ * and on that velocity. {@link ValueAnimator#ofSpring(float, float, float, float)}
+ * creates an animator configured this way.
+ * </p>
+ * <p>
+ * A spring can be reconfigured with {@link #set(float, float, float, float)} or
+ * {@link #setForRelease(float, float, float, float)}, to avoid an allocation per
+ * animation, but not while an animation is using it.
+ * </p>
+ */
+public class SpringInterpolator implements Interpolator {
+
+    /** Default distance to the target below which the spring is settled. */
+    public static final float DEFAULT_THRESHOLD = 0.5f;
+
+    /** Upper bound of the duration, in milliseconds. */
+    private static final long MAX_DURATION = 5000;
+    /** Maximum number of Newton steps to find the settle time. */
+    private static final int MAX_SETTLE_ITERATIONS = 8;
+    /** Precision of the settle time, in seconds. */
+    private static final double SETTLE_PRECISION = 1e-4;
+
+    private final float mThreshold;
+
+    private float mDisplacement;
+    private float mVelocity;
+    private float mFrequency;
+    private float mDampingRatio;
+    private float mDampedFrequency;
+    private long mDuration;
+
+    /**
+     * Creates a spring interpolator at rest on its target, settling within
+     * {@link #DEFAULT_THRESHOLD} of it. It must be configured with
+     * {@link #set(float, float, float, float)} or
+     * {@link #setForRelease(float, float, float, float)} before use.
+     */
+    public SpringInterpolator() {
+        this(0, 0, 1, 1);
+    }
+
+    /**
+     * Creates a spring interpolator settling within {@link #DEFAULT_THRESHOLD} of
+     * its target.
+     * 
+     * @param displacement
+     *            The initial distance to the target, that is the start value minus
+     *            the end value.
+     * @param velocity
+     *            The initial velocity, in units per second.
+     * @param angularFrequency
+     *            The undamped angular frequency of the spring, in radians per
+     *            second. Higher frequencies make stiffer springs.
+     * @param dampingRatio
+     *            The damping ratio, between 0 (excluded) and 1. 1 is a critically
+     *            damped spring, which settles without oscillating; lower values
+     *            make the spring bounce around its target. Higher values are
+     *            clamped to 1.
+     */
+    public SpringInterpolator(float displacement, float velocity, float angularFrequency,
+            float dampingRatio) {
+        this(displacement, velocity, angularFrequency, dampingRatio, DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * Creates a spring interpolator.
+     * 
+     * @param displacement
+     *            The initial distance to the target, that is the start value minus
+     *            the end value.
+     * @param velocity
+     *            The initial velocity, in units per second.
+     * @param angularFrequency
+     *            The undamped angular frequency of the spring, in radians per
+     *            second. Higher frequencies make stiffer springs.
+     * @param dampingRatio
+     *            The damping ratio, between 0 (excluded) and 1. Higher values are
+     *            clamped to 1.
+     * @param threshold
+     *            The distance to the target below which the spring is considered
+     *            settled, in the same unit as the displacement.
+     */
+    public SpringInterpolator(float displacement, float velocity, float angularFrequency,
+            float dampingRatio, float threshold) {
+        mThreshold = Math.abs(threshold);
+        set(displacement, velocity, angularFrequency, dampingRatio);
+    }
+
+    /**
+     * Reconfigures this spring. See
+     * {@link #SpringInterpolator(float, float, float, float)} for the parameters.
+     * 
+     * @return this interpolator, whose duration is updated.
+     */
+    public SpringInterpolator set(float displacement, float velocity, float angularFrequency,
+            float dampingRatio) {
+        if (angularFrequency <= 0 || dampingRatio <= 0) {
+            throw new IllegalArgumentException("Frequency and damping ratio must be positive");
+        }
+        mDisplacement = displacement;
+        mVelocity = velocity;
+        mFrequency = angularFrequency;
+        mDampingRatio = Math.min(dampingRatio, 1f);
+        mDampedFrequency = mFrequency * (float) Math.sqrt(1 - mDampingRatio * mDampingRatio);
+        mDuration = computeDuration();
+        return this;
+    }
+
+    /**
+     * Creates a critically damped spring continuing a release gesture. See
+     * {@link #setForRelease(float, float, float, float)}.
+     * 
+     * @return the spring interpolator, whose duration is the settle time.
+     */
+    public static SpringInterpolator forRelease(float displacement, float velocity,
+            float minFrequency, float maxFrequency) {
+        return new SpringInterpolator().setForRelease(displacement, velocity, minFrequency,
+                maxFrequency);
+    }
+
+    /**
+     * Reconfigures this spring as a critically damped spring continuing a release
+     * gesture. When the velocity points towards the target, the frequency is chosen
+     * so that the spring starts at that velocity and decays exponentially to the
+     * target, within the given frequency bounds. Otherwise the slowest spring is
+     * used, and the object first decelerates before coming back.
+     * <p>
+     * The spring never overshoots the target: a velocity that even the stiffest
+     * spring could not absorb is reduced to the one it decays from.
+     * </p>
+     * 
+     * @param displacement
+     *            The initial distance to the target, that is the start value minus
+     *            the end value.
+     * @param velocity
+     *            The velocity at the release, in units per second.
+     * @param minFrequency
+     *            The lowest angular frequency to use, in radians per second, which
+     *            sets the longest settle time.
+     * @param maxFrequency
+     *            The highest angular frequency to use, in radians per second, which
+     *            sets the shortest settle time.
+     * @return this interpolator, whose duration is the settle time.
+     */
+    public SpringInterpolator setForRelease(float displacement, float velocity,
+            float minFrequency, float maxFrequency) {
+        float frequency = minFrequency;
+        if (displacement != 0 && velocity * displacement < 0) {
+            // x(t) = x0 * exp(-w * t) has the initial velocity -w * x0, any faster
+            // and the critically damped spring crosses the target
+            frequency = Math.max(minFrequency, Math.min(maxFrequency, -velocity / displacement));
+            if (-velocity / displacement > frequency) {
+                velocity = -frequency * displacement;
+            }
+        }
+        return set(displacement, velocity, frequency, 1f);
+    }
+
+    /**
+     * Returns the time the spring takes to settle on its target. The animation
+     * using this interpolator must have this duration.
+     * 
+     * @return the settle time, in milliseconds.
+     */
+    public long getDuration() {
+        return mDuration;
+    }
+
+    /**
+     * Returns the distance to the target at the specified time.
+     * 
+     * @param t
+     *            The time since the start, in seconds.
+     * @return the signed distance to the target.
+     */
+    float getDisplacement(float t) {
+        final float x0 = mDisplacement;
+        final float w = mFrequency;
+        if (mDampingRatio < 1f) {
+            float zw = mDampingRatio * w;
+            float wd = mDampedFrequency;
+            return (float) (Math.exp(-zw * t) * (x0 * Math.cos(wd * t) + (mVelocity + zw * x0)
+                    / wd * Math.sin(wd * t)));
+        }
+        return (float) ((x0 + (mVelocity + w * x0) * t) * Math.exp(-w * t));
+    }
+
+    /**
+     * Computes the time after which the spring stays within the threshold of its
+     * target, from an upper bound of the distance.
+     */
+    private long computeDuration() {
+        if (mDisplacement == 0) {
+            // nothing to interpolate, whatever the velocity
+            return 0;
+        }
+        final float threshold = mThreshold;
+        final float x0 = mDisplacement;
+        final float w = mFrequency;
+        double settleTime;
+        if (mDampingRatio < 1f) {
+            // the oscillation stays within an exponential envelope
+            float zw = mDampingRatio * w;
+            float b = (mVelocity + zw * x0) / mDampedFrequency;
+            double amplitude = Math.sqrt(x0 * x0 + b * b);
+            settleTime = amplitude <= threshold ? 0 : Math.log(amplitude / threshold) / zw;
+        } else {
+            settleTime = criticalSettleTime(Math.abs(x0), Math.abs(mVelocity + w * x0), w,
+                    threshold);
+        }
+        return Math.min(MAX_DURATION, (long) Math.ceil(settleTime * 1000));
+    }
+
+    /**
+     * Solves {@code (a + b * t) * exp(-w * t) = threshold}, the time when the bound
+     * of the distance of a critically damped spring goes below the threshold for
+     * good.
+     * <p>
+     * The bound increases until {@code 1 / w - a / b}, then decreases. Newton's
+     * method on its logarithm, which is concave, converges monotonically from any
+     * point after the peak.
+     * </p>
+     */
+    private static double criticalSettleTime(float a, float b, float w, float threshold) {
+        double peak = Math.max(0, 1.0 / w - a / b);
+        double logThreshold = Math.log(threshold);
+        if (Math.log(a + b * peak) - w * peak <= logThreshold) {
+            // never above the threshold
+            return 0;
+        }
+        double t = peak + 1.0 / w;
+        for (int i = 0; i < MAX_SETTLE_ITERATIONS; i++) {
+            double value = Math.log(a + b * t) - w * t - logThreshold;
+            double slope = b / (a + b * t) - w;
+            double next = t - value / slope;
+            boolean converged = Math.abs(next - t) < SETTLE_PRECISION;
+            t = next;
+            if (converged) {
+                break;
+            }
+        }
+        return t;
+    }
+
+    @Override
+    public float getInterpolation(float input) {
+        if (input >= 1f || mDuration == 0) {
+            // snap to the target, which is within the threshold by now
+            return 1f;
+        }
+        return 1f - getDisplacement(input * mDuration / 1000f) / mDisplacement;
+    }
+}
@@ -18,9 +18,7 @@ import android.animation.TimeInterpolator;
 import android.os.Looper;
 import android.util.AndroidRuntimeException;
 import android.view.animation.AccelerateDecelerateInterpolator;
-import android.view.animation.AnimationUtils;
 import android.view.animation.Interpolator;
-import android.view.animation.LinearInterpolator;
 
 /**
  * This class provides a simple timing engine for running animations which calculate
@@ -28,7 +26,9 @@ import android.view.animation.LinearInterpolator;
  * 
  * <p>
  * There is a single timing pulse that all animations use. It runs in a custom
- * handler to ensure that property changes happen on the UI thread.
+ * handler to ensure that property changes happen on the UI thread. The pulse is
+ * delivered by a {@link FrameSource}, aligned with the display refresh when the
+ * platform allows it, and can be replaced with {@link #setFrameSource(FrameSource)}.
  * </p>
  * 
  * <p>
@@ -50,13 +50,6 @@ public class ValueAnimator extends Animator {
      */
     private static final long DEFAULT_FRAME_DELAY = 10;
 
-    /**
-     * Messages sent to timing handler: START is sent when an animation first begins,
-     * FRAME is sent by the handler to itself to process the next animation frame
-     */
-    static final int ANIMATION_START = 0;
-    static final int ANIMATION_FRAME = 1;
-
     /**
      * Values used with internal variable mPlayingState to indicate the current state
      * of an animation.
@@ -85,62 +78,48 @@ public class ValueAnimator extends Animator {
      */
     private long mSeekTime = -1;
 
-    // TODO: We access the following ThreadLocal variables often, some of them on
-    // every update.
-    // If ThreadLocal access is significantly expensive, we may want to put all of
-    // these
-    // fields into a structure sot hat we just access ThreadLocal once to get the
-    // reference
-    // to that structure, then access the structure directly for each field.
-
     // The static sAnimationHandler processes the internal timing loop on which all
-    // animations
-    // are based
+    // animations are based. It also holds the per-thread queues of animations, so
+    // that they are reached with a single ThreadLocal access.
     private static ThreadLocal<AnimationHandler> sAnimationHandler = new ThreadLocal<AnimationHandler>();
 
-    // The per-thread list of all active animations
-    static final ThreadLocal<ArrayList<ValueAnimator>> sAnimations = new ThreadLocal<ArrayList<ValueAnimator>>() {
-        @Override
-        protected ArrayList<ValueAnimator> initialValue() {
-            return new ArrayList<ValueAnimator>();
-        }
-    };
+    /**
+     * The queue of the animation handler this animation currently belongs to, and
+     * its slot in that queue. Maintained by {@link AnimationQueue}.
+     */
+    AnimationQueue mQueue = null;
+    int mSlot = -1;
 
-    // The per-thread set of animations to be started on the next animation frame
-    static final ThreadLocal<ArrayList<ValueAnimator>> sPendingAnimations = new ThreadLocal<ArrayList<ValueAnimator>>() {
-        @Override
-        protected ArrayList<ValueAnimator> initialValue() {
-            return new ArrayList<ValueAnimator>();
-        }
-    };
+    // The time interpolator to be used if none is set on the animation, baked as it
+    // is used by most animations on every frame
+    private static final/* Time */Interpolator sDefaultInterpolator = BakedInterpolator
+            .of(new AccelerateDecelerate());
+
+    // The time interpolator used when null is set on the animation
+    private static final/* Time */Interpolator sLinearInterpolator = new Linear();
 
     /**
-     * Internal per-thread collections used to avoid set collisions as animations
-     * start and end while being processed.
+     * Same curve as {@link AccelerateDecelerateInterpolator}. The engine's own
+     * interpolators don't use the framework classes, which can't be instantiated
+     * outside of a device, so that animations can be stepped by a
+     * {@link HeadlessFrameDriver} on a plain JVM.
      */
-    static final ThreadLocal<ArrayList<ValueAnimator>> sDelayedAnims = new ThreadLocal<ArrayList<ValueAnimator>>() {
+    private static final class AccelerateDecelerate implements Interpolator {
         @Override
-        protected ArrayList<ValueAnimator> initialValue() {
-            return new ArrayList<ValueAnimator>();
+        public float getInterpolation(float input) {
+            return (float) (Math.cos((input + 1) * Math.PI) / 2.0f) + 0.5f;
         }
-    };
-
-    static final ThreadLocal<ArrayList<ValueAnimator>> sEndingAnims = new ThreadLocal<ArrayList<ValueAnimator>>() {
-        @Override
-        protected ArrayList<ValueAnimator> initialValue() {
-            return new ArrayList<ValueAnimator>();
-        }
-    };
+    }
 
-    static final ThreadLocal<ArrayList<ValueAnimator>> sReadyAnims = new ThreadLocal<ArrayList<ValueAnimator>>() {
+    /**
+     * Same curve as {@link android.view.animation.LinearInterpolator}.
+     */
+    private static final class Linear implements Interpolator {
         @Override
-        protected ArrayList<ValueAnimator> initialValue() {
-            return new ArrayList<ValueAnimator>();
+        public float getInterpolation(float input) {
+            return input;
         }
-    };
-
-    // The time interpolator to be used if none is set on the animation
-    private static final/* Time */Interpolator sDefaultInterpolator = new AccelerateDecelerateInterpolator();
+    }
 
     /**
      * Used to indicate whether the animation is currently playing in reverse. This
@@ -315,6 +294,34 @@ public class ValueAnimator extends Animator {
         return anim;
     }
 
+    /**
+     * Constructs and returns a ValueAnimator that animates a float value with a
+     * critically damped spring, continuing a motion that has the given velocity.
+     * The duration of the returned animator is the time the spring takes to settle,
+     * and must not be changed; its interpolator is a {@link SpringInterpolator}.
+     * 
+     * @param from
+     *            The start value.
+     * @param to
+     *            The end value, where the spring settles.
+     * @param velocity
+     *            The initial velocity of the value, in units per second.
+     * @param angularFrequency
+     *            The angular frequency of the spring, in radians per second. Higher
+     *            frequencies settle faster.
+     * @return A ValueAnimator object that is set up to animate between the given
+     *         values.
+     */
+    public static ValueAnimator ofSpring(float from, float to, float velocity,
+            float angularFrequency) {
+        SpringInterpolator spring = new SpringInterpolator(from - to, velocity,
+                angularFrequency, 1f);
+        ValueAnimator anim = ofFloat(from, to);
+        anim.setDuration(spring.getDuration());
+        anim.setInterpolator(spring);
+        return anim;
+    }
+
     /**
      * Sets int values that will be animated between. A single value implies that
      * that value is the one being animated to. However, this is not typically useful
@@ -458,7 +465,7 @@ public class ValueAnimator extends Animator {
      */
     public void setCurrentPlayTime(long playTime) {
         initAnimation();
-        long currentTime = AnimationUtils.currentAnimationTimeMillis();
+        long currentTime = currentAnimationTimeMillis();
         if (mPlayingState != RUNNING) {
             mSeekTime = playTime;
             mPlayingState = SEEKED;
@@ -478,7 +485,7 @@ public class ValueAnimator extends Animator {
         if (!mInitialized || mPlayingState == STOPPED) {
             return 0;
         }
-        return AnimationUtils.currentAnimationTimeMillis() - mStartTime;
+        return currentAnimationTimeMillis() - mStartTime;
     }
 
     /**
@@ -516,6 +523,36 @@ public class ValueAnimator extends Animator {
         return null;
     }
 
+    /**
+     * The most recent value calculated by this <code>ValueAnimator</code> for the
+     * first property being animated, as an int. Unlike {@link #getAnimatedValue()},
+     * this doesn't allocate for animations created with {@link #ofInt(int...)} or
+     * {@link #ofFloat(float...)}, so it can safely be called on each frame.
+     * 
+     * @return the animated value, converted to an int, or 0 if there are no values.
+     */
+    public int getAnimatedIntValue() {
+        if (mValues != null && mValues.length > 0) {
+            return mValues[0].getAnimatedIntValue();
+        }
+        return 0;
+    }
+
+    /**
+     * The most recent value calculated by this <code>ValueAnimator</code> for the
+     * first property being animated, as a float. Unlike {@link #getAnimatedValue()},
+     * this doesn't allocate for animations created with {@link #ofInt(int...)} or
+     * {@link #ofFloat(float...)}, so it can safely be called on each frame.
+     * 
+     * @return the animated value, converted to a float, or 0 if there are no values.
+     */
+    public float getAnimatedFloatValue() {
+        if (mValues != null && mValues.length > 0) {
+            return mValues[0].getAnimatedFloatValue();
+        }
+        return 0;
+    }
+
     /**
      * Sets how many times the animation should be repeated. If the repeat count is
      * 0, the animation is never repeated. If the repeat count is greater than 0 or
@@ -550,7 +587,9 @@ public class ValueAnimator extends Animator {
      * The time interpolator used in calculating the elapsed fraction of this
      * animation. The interpolator determines whether the animation runs with linear
      * or non-linear motion, such as acceleration and deceleration. The default value
-     * is {@link android.view.animation.AccelerateDecelerateInterpolator}
+     * is the curve of {@link android.view.animation.AccelerateDecelerateInterpolator},
+     * baked into a {@link BakedInterpolator}. Costly interpolators shared by many animations
+     * can be wrapped the same way with {@link BakedInterpolator#of(Interpolator)}.
      * 
      * @param value
      *            the interpolator to be used by this animation. A value of
@@ -561,7 +600,7 @@ public class ValueAnimator extends Animator {
         if (value != null) {
             mInterpolator = value;
         } else {
-            mInterpolator = new LinearInterpolator();
+            mInterpolator = sLinearInterpolator;
         }
     }
 
@@ -573,7 +612,8 @@ public class ValueAnimator extends Animator {
      * <p>
      * The animation started by calling this method will be run on the thread that
      * called this method. This thread should have a Looper on it (a runtime
-     * exception will be thrown if this is not the case). Also, if the animation will
+     * exception will be thrown if this is not the case), unless its frame source
+     * doesn't need one, like {@link HeadlessFrameDriver}. Also, if the animation will
      * animate properties of objects in the view hierarchy, then the calling thread
      * should be the UI thread for that view hierarchy.
      * </p>
@@ -582,14 +622,15 @@ public class ValueAnimator extends Animator {
      *            Whether the ValueAnimator should start playing in reverse.
      */
     private void start(boolean playBackwards) {
-        if (Looper.myLooper() == null) {
+        AnimationHandler animationHandler = getOrCreateAnimationHandler();
+        if (animationHandler.requiresLooper() && Looper.myLooper() == null) {
             throw new AndroidRuntimeException("Animators may only be run on Looper threads");
         }
         mPlayingBackwards = playBackwards;
         mCurrentIteration = 0;
         mPlayingState = STOPPED;
         mStartedDelay = false;
-        sPendingAnimations.get().add(this);
+        animationHandler.pendingAnimations.add(this);
         if (mStartDelay == 0) {
             // This sets the initial value of the animation, prior to actually
             // starting it running
@@ -597,21 +638,87 @@ public class ValueAnimator extends Animator {
             mPlayingState = STOPPED;
             mRunning = true;
 
-            if (mListeners != null) {
-                ArrayList<AnimatorListener> tmpListeners = (ArrayList<AnimatorListener>) mListeners
-                        .clone();
-                int numListeners = tmpListeners.size();
-                for (int i = 0; i < numListeners; ++i) {
-                    tmpListeners.get(i).onAnimationStart(this);
-                }
+            AnimatorListener[] listeners = getListenersSnapshot();
+            for (int i = 0; i < listeners.length; ++i) {
+                listeners[i].onAnimationStart(this);
             }
         }
+        animationHandler.scheduleFrame();
+    }
+
+    private static AnimationHandler getOrCreateAnimationHandler() {
         AnimationHandler animationHandler = sAnimationHandler.get();
         if (animationHandler == null) {
             animationHandler = new AnimationHandler();
             sAnimationHandler.set(animationHandler);
         }
-        animationHandler.sendEmptyMessage(ANIMATION_START);
+        return animationHandler;
+    }
+
+    /**
+     * Sets the source of the timing pulse for the animations of the calling thread.
+     * By default, the animations are synchronized with the display refresh on Jelly
+     * Bean and above, and run every {@link #getFrameDelay()} milliseconds on older
+     * versions.
+     * 
+     * @param frameSource
+     *            The frame source to use, or <code>null</code> to use the default one.
+     */
+    public static void setFrameSource(FrameSource frameSource) {
+        getOrCreateAnimationHandler().setFrameSource(frameSource);
+    }
+
+    /**
+     * Returns the source of the timing pulse for the animations of the calling
+     * thread.
+     * 
+     * @return the frame source of the calling thread.
+     */
+    public static FrameSource getFrameSource() {
+        return getOrCreateAnimationHandler().getFrameSource();
+    }
+
+    /**
+     * Sets the clock giving the current time to the animations of the calling
+     * thread. It must use the same time base as the frame source of the thread.
+     * 
+     * @param clock
+     *            The clock to use, or <code>null</code> to use the default one, based
+     *            on {@link android.view.animation.AnimationUtils#currentAnimationTimeMillis()}.
+     */
+    public static void setClock(AnimationClock clock) {
+        getOrCreateAnimationHandler().setClock(clock);
+    }
+
+    /**
+     * Returns the current animation time of the calling thread, read from its
+     * clock.
+     */
+    private static long currentAnimationTimeMillis() {
+        return getOrCreateAnimationHandler().getClock().currentTimeMillis();
+    }
+
+    /**
+     * The amount of time, in milliseconds, between each frame of the animation. This
+     * is only used by {@link HandlerFrameSource}, other frame sources have their own
+     * timing.
+     * 
+     * @return the requested time between frames, in milliseconds
+     */
+    public static long getFrameDelay() {
+        return sFrameDelay;
+    }
+
+    /**
+     * The amount of time, in milliseconds, between each frame of the animation. This
+     * is only used by {@link HandlerFrameSource}, other frame sources have their own
+     * timing.
+     * 
+     * @param frameDelay
+     *            the requested time between frames, in milliseconds
+     */
+    public static void setFrameDelay(long frameDelay) {
+        sFrameDelay = frameDelay;
     }
 
     @Override
@@ -624,14 +731,14 @@ public class ValueAnimator extends Animator {
         // Only cancel if the animation is actually running or has been started and
         // is about
         // to run
-        if (mPlayingState != STOPPED || sPendingAnimations.get().contains(this)
-                || sDelayedAnims.get().contains(this)) {
+        AnimationHandler handler = getOrCreateAnimationHandler();
+        if (mPlayingState != STOPPED || handler.pendingAnimations.contains(this)
+                || handler.delayedAnims.contains(this)) {
             // Only notify listeners if the animator has actually started
-            if (mRunning && mListeners != null) {
-                ArrayList<AnimatorListener> tmpListeners = (ArrayList<AnimatorListener>) mListeners
-                        .clone();
-                for (AnimatorListener listener : tmpListeners) {
-                    listener.onAnimationCancel(this);
+            if (mRunning) {
+                AnimatorListener[] listeners = getListenersSnapshot();
+                for (int i = 0; i < listeners.length; ++i) {
+                    listeners[i].onAnimationCancel(this);
                 }
             }
             endAnimation();
@@ -640,7 +747,8 @@ public class ValueAnimator extends Animator {
 
     @Override
     public void end() {
-        if (!sAnimations.get().contains(this) && !sPendingAnimations.get().contains(this)) {
+        AnimationHandler handler = getOrCreateAnimationHandler();
+        if (!handler.animations.contains(this) && !handler.pendingAnimations.contains(this)) {
             // Special case if the animation has not yet started; get it ready for
             // ending
             mStartedDelay = false;
@@ -669,16 +777,14 @@ public class ValueAnimator extends Animator {
      * Must be called on the UI thread.
      */
     void endAnimation() {
-        sAnimations.get().remove(this);
-        sPendingAnimations.get().remove(this);
-        sDelayedAnims.get().remove(this);
+        if (mQueue != null) {
+            mQueue.remove(this);
+        }
         mPlayingState = STOPPED;
-        if (mRunning && mListeners != null) {
-            ArrayList<AnimatorListener> tmpListeners = (ArrayList<AnimatorListener>) mListeners
-                    .clone();
-            int numListeners = tmpListeners.size();
-            for (int i = 0; i < numListeners; ++i) {
-                tmpListeners.get(i).onAnimationEnd(this);
+        if (mRunning) {
+            AnimatorListener[] listeners = getListenersSnapshot();
+            for (int i = 0; i < listeners.length; ++i) {
+                listeners[i].onAnimationEnd(this);
             }
         }
         mRunning = false;
@@ -690,15 +796,13 @@ public class ValueAnimator extends Animator {
      */
     void startAnimation() {
         initAnimation();
-        sAnimations.get().add(this);
-        if (mStartDelay > 0 && mListeners != null) {
+        getOrCreateAnimationHandler().animations.add(this);
+        if (mStartDelay > 0) {
             // Listeners were already notified in start() if startDelay is 0; this is
             // just for delayed animations
-            ArrayList<AnimatorListener> tmpListeners = (ArrayList<AnimatorListener>) mListeners
-                    .clone();
-            int numListeners = tmpListeners.size();
-            for (int i = 0; i < numListeners; ++i) {
-                tmpListeners.get(i).onAnimationStart(this);
+            AnimatorListener[] listeners = getListenersSnapshot();
+            for (int i = 0; i < listeners.length; ++i) {
+                listeners[i].onAnimationStart(this);
             }
         }
     }
@@ -766,11 +870,9 @@ public class ValueAnimator extends Animator {
             if (fraction >= 1f) {
                 if (mCurrentIteration < mRepeatCount || mRepeatCount == INFINITE) {
                     // Time to repeat
-                    if (mListeners != null) {
-                        int numListeners = mListeners.size();
-                        for (int i = 0; i < numListeners; ++i) {
-                            mListeners.get(i).onAnimationRepeat(this);
-                        }
+                    AnimatorListener[] listeners = getListenersSnapshot();
+                    for (int i = 0; i < listeners.length; ++i) {
+                        listeners[i].onAnimationRepeat(this);
                     }
                     if (mRepeatMode == REVERSE) {
                         mPlayingBackwards = mPlayingBackwards ? false : true;
@@ -844,6 +946,8 @@ public class ValueAnimator extends Animator {
                 anim.mUpdateListeners.add(oldListeners.get(i));
             }
         }
+        anim.mQueue = null;
+        anim.mSlot = -1;
         anim.mSeekTime = -1;
         anim.mPlayingBackwards = false;
         anim.mCurrentIteration = 0;
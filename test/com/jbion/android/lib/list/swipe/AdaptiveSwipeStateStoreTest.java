@@ -0,0 +1,119 @@
+package com.jbion.android.lib.list.swipe;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Runs the {@link SwipeStateStoreTestCase} checks on an
+ * {@link AdaptiveSwipeStateStore}, and checks that its states survive the switches
+ * between the sparse and the dense representations.
+ */
+public class AdaptiveSwipeStateStoreTest extends SwipeStateStoreTestCase {
+
+    /** Smallest list using the sparse store. */
+    private static final int MIN_SPARSE_SIZE = 1024;
+    private static final int LARGE_SIZE = 2048;
+
+    @Override
+    SwipeStateStore createStore() {
+        return new AdaptiveSwipeStateStore();
+    }
+
+    private boolean isDense() {
+        return ((AdaptiveSwipeStateStore) store).isDense();
+    }
+
+    @Test
+    public void smallListsAreDense() {
+        reset(MIN_SPARSE_SIZE - 1);
+        assertTrue(isDense());
+        reset(MIN_SPARSE_SIZE);
+        assertFalse(isDense());
+    }
+
+    @Test
+    public void switchToDenseAboveOneSixteenth() {
+        reset(LARGE_SIZE);
+        // the entries of the sparse store, not the states, are counted
+        for (int i = 0; i < LARGE_SIZE / 16; i++) {
+            setSwiped(i * 16, true);
+            setChecked(i * 16, true);
+            setSwipedToRight(i * 16, i % 2 == 0);
+        }
+        assertFalse(isDense());
+        check();
+        setChecked(1, true);
+        assertTrue(isDense());
+        check();
+    }
+
+    @Test
+    public void switchToSparseBelowOneSixtyFourth() {
+        reset(LARGE_SIZE);
+        for (int i = 0; i < LARGE_SIZE / 8; i++) {
+            setSwiped(i * 8, true);
+            setSwipedToRight(i * 8, i % 3 == 0);
+        }
+        assertTrue(isDense());
+        for (int i = 0; i < LARGE_SIZE / 64; i++) {
+            setChecked(i * 64 + 63, true);
+        }
+        // 32 checked items are not less than 2048 / 64
+        store.unswipeAll();
+        model.unswipeAll();
+        assertTrue(isDense());
+        check();
+        // 30 checked items are less than 1984 / 64
+        setChecked(63, false);
+        removeRange(LARGE_SIZE - 64, 64);
+        assertFalse(isDense());
+        check();
+    }
+
+    @Test
+    public void removalsBelowTheSparseSizeStayDense() {
+        reset(MIN_SPARSE_SIZE);
+        for (int i = 0; i < MIN_SPARSE_SIZE / 8; i++) {
+            setChecked(i * 8, true);
+        }
+        assertTrue(isDense());
+        setChecked(0, false);
+        removeRange(MIN_SPARSE_SIZE / 2, MIN_SPARSE_SIZE / 2);
+        store.uncheckAll();
+        model.uncheckAll();
+        assertTrue(isDense());
+        check();
+        insertRange(0, MIN_SPARSE_SIZE);
+        assertFalse(isDense());
+        check();
+    }
+
+    @Test
+    public void randomOperationsAcrossSwitches() {
+        Random random = new Random(7);
+        boolean wasDense = false;
+        boolean wasSparse = false;
+        reset(MIN_SPARSE_SIZE + 64);
+        for (int step = 0; step < 20000; step++) {
+            // states are set often enough to cross 1/16 before a reset
+            randomOperation(random, 8);
+            if (random.nextInt(1000) == 0) {
+                reset(MIN_SPARSE_SIZE + random.nextInt(256));
+            }
+            if (isDense()) {
+                wasDense = true;
+            } else {
+                wasSparse = true;
+            }
+            if (step % 64 == 0) {
+                check();
+            }
+        }
+        check();
+        assertTrue(wasDense && wasSparse);
+    }
+}
@@ -0,0 +1,34 @@
+package com.jbion.android.lib.list.swipe;
+
+import org.junit.Test;
+
+/**
+ * Runs the {@link SwipeStateStoreTestCase} checks on a
+ * {@link DenseSwipeStateStore}.
+ */
+public class DenseSwipeStateStoreTest extends SwipeStateStoreTestCase {
+
+    @Override
+    SwipeStateStore createStore() {
+        return new DenseSwipeStateStore();
+    }
+
+    @Test
+    public void shiftWholeWords() {
+        fill(4 * 64);
+        insertRange(64, 128);
+        check();
+        removeRange(0, 192);
+        check();
+        insertRange(0, 64);
+        check();
+    }
+
+    @Test
+    public void resetReleasesLargeArrays() {
+        fill(64 * 64);
+        fill(SIZE);
+        insertRange(SIZE, 64 * 64);
+        check();
+    }
+}
@@ -0,0 +1,42 @@
+package com.jbion.android.lib.list.swipe;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * Runs the {@link SwipeStateStoreTestCase} checks on a
+ * {@link SparseSwipeStateStore}.
+ */
+public class SparseSwipeStateStoreTest extends SwipeStateStoreTestCase {
+
+    @Override
+    SwipeStateStore createStore() {
+        return new SparseSwipeStateStore();
+    }
+
+    @Test
+    public void clearedItemsLeaveNoEntry() {
+        fill(SIZE);
+        for (int i = 0; i < SIZE; i++) {
+            setSwipedToRight(i, true);
+            setSwiped(i, false);
+            setChecked(i, false);
+        }
+        check();
+        assertEquals(0, ((SparseSwipeStateStore) store).getEntryCount());
+    }
+
+    @Test
+    public void growEntries() {
+        reset(SIZE);
+        // more entries than the initial capacity, inserted in reverse order
+        for (int i = SIZE - 1; i >= 0; i -= 2) {
+            setChecked(i, true);
+        }
+        check();
+        moveItem(SIZE - 1, 0);
+        moveItem(0, SIZE - 1);
+        check();
+    }
+}
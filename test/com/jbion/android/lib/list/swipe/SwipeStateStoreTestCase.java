@@ -0,0 +1,407 @@
+package com.jbion.android.lib.list.swipe;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Checks a {@link SwipeStateStore} implementation against a reference model made
+ * of plain lists. After each operation, every state of every position, the counts
+ * and the enumerations must be the same in both.
+ * <p>
+ * The positions and counts used by the range operations are chosen around the
+ * 64-bit word boundaries of the dense store.
+ * </p>
+ */
+public abstract class SwipeStateStoreTestCase {
+
+    /** Positions and counts around the word boundaries. */
+    static final int[] BOUNDARIES = { 0, 1, 2, 62, 63, 64, 65, 127, 128, 129, 191, 192 };
+
+    /** Size of the lists of the boundary tests, past the third word. */
+    static final int SIZE = 200;
+
+    SwipeStateStore store;
+    Model model;
+
+    /**
+     * Returns a new instance of the tested store.
+     */
+    abstract SwipeStateStore createStore();
+
+    @Before
+    public void setUp() {
+        store = createStore();
+        model = new Model();
+    }
+
+    /**
+     * Resets both stores to the specified size, and gives states to the positions
+     * of a pattern crossing all the words.
+     */
+    void fill(int size) {
+        reset(size);
+        for (int i = 0; i < size; i++) {
+            if (i % 3 == 0 || i % 64 == 63) {
+                setSwiped(i, true);
+                setSwipedToRight(i, i % 2 == 0);
+            }
+            if (i % 5 == 0 || i % 64 == 0) {
+                setChecked(i, true);
+            }
+        }
+        check();
+    }
+
+    void reset(int count) {
+        store.reset(count);
+        model.reset(count);
+    }
+
+    void setSwiped(int position, boolean swiped) {
+        store.setSwiped(position, swiped);
+        model.setSwiped(position, swiped);
+    }
+
+    void setSwipedToRight(int position, boolean toRight) {
+        store.setSwipedToRight(position, toRight);
+        model.setSwipedToRight(position, toRight);
+    }
+
+    void setChecked(int position, boolean checked) {
+        store.setChecked(position, checked);
+        model.setChecked(position, checked);
+    }
+
+    void insertRange(int position, int count) {
+        store.insertRange(position, count);
+        model.insertRange(position, count);
+    }
+
+    void removeRange(int position, int count) {
+        store.removeRange(position, count);
+        model.removeRange(position, count);
+    }
+
+    void moveItem(int from, int to) {
+        store.moveItem(from, to);
+        model.moveItem(from, to);
+    }
+
+    void changeRange(int position, int count) {
+        store.changeRange(position, count);
+        model.changeRange(position, count);
+    }
+
+    /**
+     * Asserts that the tested store holds the same states as the model.
+     */
+    void check() {
+        assertEquals("size", model.size(), store.size());
+        // a word past the end, which must read as default states
+        for (int i = 0; i < model.size() + 64; i++) {
+            assertEquals("swiped at " + i, model.isSwiped(i), store.isSwiped(i));
+            assertEquals("direction at " + i, model.isSwipedToRight(i),
+                    store.isSwipedToRight(i));
+            assertEquals("checked at " + i, model.isChecked(i), store.isChecked(i));
+        }
+        assertEquals("swiped count", model.getCountSwiped(), store.getCountSwiped());
+        assertEquals("right count", model.getCountSwiped(true), store.getCountSwiped(true));
+        assertEquals("left count", model.getCountSwiped(false), store.getCountSwiped(false));
+        assertEquals("checked count", model.getCountChecked(), store.getCountChecked());
+        for (int from = 0, next = 0; next >= 0; from = next + 1) {
+            next = model.nextSwiped(from);
+            assertEquals("next swiped from " + from, next, store.nextSwiped(from));
+        }
+        for (int from = 0, next = 0; next >= 0; from = next + 1) {
+            next = model.nextChecked(from);
+            assertEquals("next checked from " + from, next, store.nextChecked(from));
+        }
+    }
+
+    @Test
+    public void insertAtWordBoundaries() {
+        for (int position : BOUNDARIES) {
+            for (int count : BOUNDARIES) {
+                fill(SIZE);
+                insertRange(position, count);
+                check();
+            }
+        }
+    }
+
+    @Test
+    public void removeAtWordBoundaries() {
+        for (int position : BOUNDARIES) {
+            for (int count : BOUNDARIES) {
+                fill(SIZE);
+                removeRange(position, count);
+                check();
+            }
+        }
+    }
+
+    @Test
+    public void moveAcrossWordBoundaries() {
+        for (int from : BOUNDARIES) {
+            for (int to : BOUNDARIES) {
+                fill(SIZE);
+                moveItem(from, to);
+                check();
+            }
+        }
+    }
+
+    @Test
+    public void changeKeepsStates() {
+        for (int position : BOUNDARIES) {
+            fill(SIZE);
+            changeRange(position, 64);
+            check();
+        }
+    }
+
+    @Test
+    public void unswipeClearsDirection() {
+        fill(SIZE);
+        setSwiped(0, false);
+        setSwiped(63, false);
+        check();
+        setSwipedToRight(1, true);
+        setSwiped(1, true);
+        check();
+        store.unswipeAll();
+        model.unswipeAll();
+        check();
+    }
+
+    @Test
+    public void randomOperations() {
+        Random random = new Random(42);
+        reset(SIZE);
+        for (int step = 0; step < 5000; step++) {
+            randomOperation(random, 1);
+            if (step % 16 == 0) {
+                check();
+            }
+        }
+        check();
+    }
+
+    /**
+     * Applies a random operation to both stores. The states are set {@code weight}
+     * times more often than the other operations.
+     */
+    void randomOperation(Random random, int weight) {
+        int size = model.size();
+        int op = random.nextInt(6 + 3 * weight);
+        int position = size > 0 ? random.nextInt(size) : 0;
+        switch (op) {
+        case 0:
+            insertRange(random.nextInt(size + 1), random.nextInt(70));
+            break;
+        case 1:
+            removeRange(position, random.nextInt(70));
+            break;
+        case 2:
+            if (size > 0) {
+                moveItem(position, random.nextInt(size));
+            }
+            break;
+        case 3:
+            changeRange(position, random.nextInt(70));
+            break;
+        case 4:
+            if (random.nextInt(8) == 0) {
+                store.unswipeAll();
+                model.unswipeAll();
+            }
+            break;
+        case 5:
+            if (random.nextInt(8) == 0) {
+                store.uncheckAll();
+                model.uncheckAll();
+            }
+            break;
+        default:
+            if (size == 0) {
+                break;
+            }
+            switch ((op - 6) % 3) {
+            case 0:
+                setSwiped(position, random.nextInt(3) != 0);
+                break;
+            case 1:
+                setSwipedToRight(position, random.nextBoolean());
+                break;
+            default:
+                setChecked(position, random.nextInt(3) != 0);
+                break;
+            }
+            break;
+        }
+    }
+
+    /**
+     * Reference store, keeping each state of each position in a list.
+     */
+    static class Model implements SwipeStateStore {
+
+        private final List<Boolean> swiped = new ArrayList<Boolean>();
+        private final List<Boolean> swipedToRight = new ArrayList<Boolean>();
+        private final List<Boolean> checked = new ArrayList<Boolean>();
+
+        private static boolean get(List<Boolean> states, int position) {
+            return position >= 0 && position < states.size() && states.get(position);
+        }
+
+        private static int next(List<Boolean> states, int fromPosition) {
+            for (int i = Math.max(fromPosition, 0); i < states.size(); i++) {
+                if (states.get(i)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private static int count(List<Boolean> states, List<Boolean> mask) {
+            int count = 0;
+            for (int i = 0; i < states.size(); i++) {
+                if (states.get(i) && (mask == null || mask.get(i))) {
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        @Override
+        public void reset(int count) {
+            swiped.clear();
+            swipedToRight.clear();
+            checked.clear();
+            insertRange(0, count);
+        }
+
+        @Override
+        public void onDataSetChanged(int count) {
+            reset(count);
+        }
+
+        @Override
+        public void insertRange(int position, int count) {
+            for (int i = 0; i < count; i++) {
+                swiped.add(position, false);
+                swipedToRight.add(position, false);
+                checked.add(position, false);
+            }
+        }
+
+        @Override
+        public void removeRange(int position, int count) {
+            int end = Math.min(position + count, size());
+            for (int i = position; i < end; i++) {
+                swiped.remove(position);
+                swipedToRight.remove(position);
+                checked.remove(position);
+            }
+        }
+
+        @Override
+        public void moveItem(int from, int to) {
+            swiped.add(to, swiped.remove(from));
+            swipedToRight.add(to, swipedToRight.remove(from));
+            checked.add(to, checked.remove(from));
+        }
+
+        @Override
+        public void changeRange(int position, int count) {
+            // the states stay with the positions
+        }
+
+        @Override
+        public int size() {
+            return swiped.size();
+        }
+
+        @Override
+        public boolean isSwiped(int position) {
+            return get(swiped, position);
+        }
+
+        @Override
+        public boolean isSwipedToRight(int position) {
+            return get(swipedToRight, position);
+        }
+
+        @Override
+        public boolean isChecked(int position) {
+            return get(checked, position);
+        }
+
+        @Override
+        public void setSwiped(int position, boolean value) {
+            swiped.set(position, value);
+            if (!value) {
+                swipedToRight.set(position, false);
+            }
+        }
+
+        @Override
+        public void setSwipedToRight(int position, boolean toRight) {
+            if (swiped.get(position)) {
+                swipedToRight.set(position, toRight);
+            }
+        }
+
+        @Override
+        public void setChecked(int position, boolean value) {
+            checked.set(position, value);
+        }
+
+        @Override
+        public int getCountSwiped() {
+            return count(swiped, null);
+        }
+
+        @Override
+        public int getCountSwiped(boolean toRight) {
+            int right = count(swipedToRight, swiped);
+            return toRight ? right : getCountSwiped() - right;
+        }
+
+        @Override
+        public int getCountChecked() {
+            return count(checked, null);
+        }
+
+        @Override
+        public void unswipeAll() {
+            for (int i = 0; i < size(); i++) {
+                swiped.set(i, false);
+                swipedToRight.set(i, false);
+            }
+        }
+
+        @Override
+        public void uncheckAll() {
+            for (int i = 0; i < size(); i++) {
+                checked.set(i, false);
+            }
+        }
+
+        @Override
+        public int nextSwiped(int fromPosition) {
+            return next(swiped, fromPosition);
+        }
+
+        @Override
+        public int nextChecked(int fromPosition) {
+            return next(checked, fromPosition);
+        }
+    }
+}
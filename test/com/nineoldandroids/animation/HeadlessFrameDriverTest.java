@@ -0,0 +1,107 @@
+package com.nineoldandroids.animation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Runs animations on a plain JVM, stepped by a {@link HeadlessFrameDriver}. No
+ * framework class may be instantiated here: against the android.jar stubs, they
+ * all throw.
+ */
+public class HeadlessFrameDriverTest {
+
+    private static final long START_TIME = 1000;
+    private static final long FRAME_INTERVAL = 16;
+
+    private HeadlessFrameDriver driver;
+
+    @Before
+    public void setUp() {
+        driver = new HeadlessFrameDriver(START_TIME);
+        driver.install();
+    }
+
+    @Test
+    public void animationFollowsTheFrameTimes() {
+        final List<Long> frameTimes = new ArrayList<Long>();
+        final List<Long> playTimes = new ArrayList<Long>();
+        final int[] ends = new int[1];
+        ValueAnimator animator = ValueAnimator.ofFloat(0f, 100f);
+        animator.setDuration(100);
+        animator.addUpdateListener(new AnimatorUpdateListener() {
+            @Override
+            public void onAnimationUpdate(ValueAnimator animation) {
+                frameTimes.add(driver.currentTimeMillis());
+                playTimes.add(animation.getCurrentPlayTime());
+            }
+        });
+        animator.addListener(new AnimatorListenerAdapter() {
+            @Override
+            public void onAnimationEnd(Animator animation) {
+                ends[0]++;
+            }
+        });
+
+        animator.start();
+        assertTrue("start must request a frame", driver.hasPendingFrame());
+        // the initial value is set by start(), before any frame
+        assertEquals(1, frameTimes.size());
+
+        int frames = driver.runUntilIdle(FRAME_INTERVAL, 100);
+
+        // the first frame starts the animation, 7 more cover its 100ms
+        assertEquals(8, frames);
+        assertEquals(frames, driver.getFrameCount());
+        assertEquals(frames + 1, frameTimes.size());
+        long firstFrameTime = START_TIME + FRAME_INTERVAL;
+        for (int i = 1; i < frameTimes.size(); i++) {
+            long frameTime = START_TIME + i * FRAME_INTERVAL;
+            assertEquals("frame " + i, frameTime, (long) frameTimes.get(i));
+            assertEquals("play time " + i, frameTime - firstFrameTime, (long) playTimes.get(i));
+        }
+        assertEquals(1, ends[0]);
+        assertEquals(100f, animator.getAnimatedFloatValue(), 0f);
+        assertFalse(animator.isRunning());
+        assertFalse(driver.hasPendingFrame());
+    }
+
+    @Test
+    public void defaultInterpolatorAcceleratesAndDecelerates() {
+        ValueAnimator animator = ValueAnimator.ofFloat(0f, 1f);
+        animator.setDuration(100);
+        animator.start();
+        // starts the animation
+        driver.step(FRAME_INTERVAL);
+
+        driver.step(25);
+        float expected = (float) (Math.cos(1.25 * Math.PI) / 2 + 0.5);
+        assertEquals(expected, animator.getAnimatedFloatValue(), 1e-3f);
+        driver.step(25);
+        assertEquals(0.5f, animator.getAnimatedFloatValue(), 1e-3f);
+
+        animator.cancel();
+        assertFalse(animator.isRunning());
+    }
+
+    @Test
+    public void nullInterpolatorIsLinear() {
+        ValueAnimator animator = ValueAnimator.ofFloat(0f, 1f);
+        animator.setDuration(100);
+        animator.setInterpolator(null);
+        animator.start();
+        driver.step(FRAME_INTERVAL);
+
+        driver.step(25);
+        assertEquals(0.25f, animator.getAnimatedFloatValue(), 1e-6f);
+
+        animator.end();
+        assertEquals(1f, animator.getAnimatedFloatValue(), 0f);
+    }
+}